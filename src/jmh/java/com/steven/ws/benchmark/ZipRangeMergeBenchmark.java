@@ -0,0 +1,132 @@
+package com.steven.ws.benchmark;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.steven.ws.bo.ZipCodeRangeBO;
+import com.steven.ws.bo.ZipRangeBO;
+import com.steven.ws.impl.WsCodeChallengeManager;
+
+/**
+ * Throughput of the range merge hot path for both entry points of {@link WsCodeChallengeManager}. Run with the gc
+ * profiler (the default in the benchmark profile) to also report the allocation rate.
+ * 
+ * <pre>
+ * Input shapes:
+ * 	- SPARSE: short ranges spread across the whole zip code space, few overlaps
+ * 	- DENSE: short ranges packed into a narrow band, many overlaps
+ * 	- OVERLAPPING: wide ranges that all overlap each other
+ * 	- SORTED: sparse ranges already in ascending order
+ * 	- REVERSE_SORTED: sparse ranges in descending order
+ * 	- DUPLICATES: a handful of distinct ranges repeated many times
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ZipRangeMergeBenchmark {
+
+	public enum Shape {
+		SPARSE, DENSE, OVERLAPPING, SORTED, REVERSE_SORTED, DUPLICATES
+	}
+
+	@Param({ "10", "1000", "100000", "1000000" })
+	private int size;
+
+	@Param({ "SPARSE", "DENSE", "OVERLAPPING", "SORTED", "REVERSE_SORTED", "DUPLICATES" })
+	private Shape shape;
+
+	private final WsCodeChallengeManager wsCodeChallengeManager = new WsCodeChallengeManager();
+
+	private List<List<String>> zipCodeRanges;
+
+	private ZipRangeBO zipRangeBO;
+
+	/**
+	 * Inputs are generated once per trial. The manager never modifies its input lists, so the same lists can be reused
+	 * by every invocation.
+	 */
+	@Setup(Level.Trial)
+	public void generateRanges() {
+		Random random = new Random(42);
+		int[][] ranges = new int[size][];
+		for (int i = 0; i < size; i++) {
+			ranges[i] = generateRange(random, i);
+		}
+		if (shape == Shape.SORTED || shape == Shape.REVERSE_SORTED) {
+			Arrays.sort(ranges, (int[] o1, int[] o2) -> shape == Shape.SORTED ? Integer.compare(o1[0], o2[0])
+					: Integer.compare(o2[0], o1[0]));
+		}
+
+		zipCodeRanges = new ArrayList<>(size);
+		List<ZipCodeRangeBO> zipCodeRangeBOs = new ArrayList<>(size);
+		for (int[] range : ranges) {
+			List<String> zipRange = Arrays.asList(format(range[0]), format(range[1]));
+			zipCodeRanges.add(zipRange);
+
+			ZipCodeRangeBO zipCodeRangeBO = new ZipCodeRangeBO();
+			zipCodeRangeBO.setZipRange(Arrays.asList(format(range[0]), format(range[1])));
+			zipCodeRangeBOs.add(zipCodeRangeBO);
+		}
+		zipRangeBO = new ZipRangeBO();
+		zipRangeBO.setZipCodeRanges(zipCodeRangeBOs);
+	}
+
+	@Benchmark
+	public List<List<String>> mergeList() {
+		return wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(zipCodeRanges);
+	}
+
+	@Benchmark
+	public List<List<String>> mergeBO() {
+		return wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(zipRangeBO);
+	}
+
+	private int[] generateRange(Random random, int index) {
+		int low;
+		int width;
+		switch (shape) {
+		case DENSE:
+			low = 50000 + random.nextInt(1000);
+			width = random.nextInt(20);
+			break;
+		case OVERLAPPING:
+			low = random.nextInt(10000);
+			width = 50000 + random.nextInt(40000);
+			break;
+		case DUPLICATES:
+			low = (index % 8) * 10000;
+			width = 500;
+			break;
+		default:
+			low = random.nextInt(99000);
+			width = random.nextInt(10);
+			break;
+		}
+		return new int[] { low, Math.min(low + width, 99999) };
+	}
+
+	private static String format(int zipCode) {
+		return String.format("%05d", zipCode);
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.steven.ws.loadtest;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Settings of a load test run, parsed from {@code key=value} arguments. Every setting has a default, so the harness
+ * runs with no arguments at all.
+ *
+ * <pre>
+ * 	- target: base URL of a running service, e.g. http://host:8080/wsChallenge; when empty the service is started
+ * 	  in process on a random local port
+ * 	- endpoints: comma separated endpoints to drive, any of query, path and post
+ * 	- concurrency: comma separated numbers of concurrent clients, each level is run in turn for every endpoint
+ * 	- sizes: comma separated number of ranges per request with their relative weight, e.g. 10:70,1000:25,50000:5
+ * 	- max-get-ranges: GET requests carry the ranges in the URL, so larger sizes are capped to this many ranges
+ * 	- warmup-seconds and duration-seconds: time spent before and while measuring each endpoint and level
+ * 	- output: the JSON report file
+ * 	- seed: seed of the generated payloads
+ * </pre>
+ */
+final class LoadProfile {
+
+	private static final int PAYLOADS_PER_SIZE = 16;
+
+	private final Map<String, String> settings = new LinkedHashMap<>();
+
+	private final int[] sizes;
+
+	private final int[] cumulativeWeights;
+
+	LoadProfile(String[] args) {
+		settings.put("target", "");
+		settings.put("endpoints", "query,path,post");
+		settings.put("concurrency", "1,8,32");
+		settings.put("sizes", "10:70,200:25,5000:5");
+		settings.put("max-get-ranges", "500");
+		settings.put("warmup-seconds", "5");
+		settings.put("duration-seconds", "20");
+		settings.put("output", "target/loadtest-result.json");
+		settings.put("seed", "42");
+		for (String arg : args) {
+			int separator = arg.indexOf('=');
+			String key = arg.substring(arg.startsWith("--") ? 2 : 0, separator < 0 ? arg.length() : separator);
+			if (!settings.containsKey(key) || separator < 0) {
+				throw new IllegalArgumentException(
+						"Unknown load test argument " + arg + ", expected key=value with a key among " + settings.keySet());
+			}
+			settings.put(key, arg.substring(separator + 1));
+		}
+
+		String[] sizeWeights = get("sizes").split(",");
+		sizes = new int[sizeWeights.length];
+		cumulativeWeights = new int[sizeWeights.length];
+		int totalWeight = 0;
+		for (int i = 0; i < sizeWeights.length; i++) {
+			String[] sizeWeight = sizeWeights[i].trim().split(":");
+			sizes[i] = Integer.parseInt(sizeWeight[0]);
+			totalWeight += sizeWeight.length > 1 ? Integer.parseInt(sizeWeight[1]) : 1;
+			cumulativeWeights[i] = totalWeight;
+		}
+	}
+
+	String get(String key) {
+		return settings.get(key);
+	}
+
+	int getInt(String key) {
+		return Integer.parseInt(settings.get(key));
+	}
+
+	Map<String, String> getSettings() {
+		return settings;
+	}
+
+	List<String> getEndpoints() {
+		return Arrays.asList(get("endpoints").split(","));
+	}
+
+	int[] getConcurrencyLevels() {
+		return Arrays.stream(get("concurrency").split(",")).mapToInt(Integer::parseInt).toArray();
+	}
+
+	/**
+	 * Generates a pool of range payloads following the size distribution, so building requests stays out of the
+	 * measured time. Each payload holds packed bounds as consecutive low and high values.
+	 *
+	 * @return payloads drawn according to the size weights
+	 */
+	List<int[]> generatePayloads() {
+		Random random = new Random(Long.parseLong(get("seed")));
+		int totalWeight = cumulativeWeights[cumulativeWeights.length - 1];
+		int payloadCount = Math.max(PAYLOADS_PER_SIZE * sizes.length, totalWeight);
+		List<int[]> payloads = new ArrayList<>(payloadCount);
+		for (int i = 0; i < payloadCount; i++) {
+			// spread the pool evenly over the weights instead of sampling, so small pools keep the distribution
+			int weight = (int) ((long) i * totalWeight / payloadCount);
+			int sizeIndex = 0;
+			while (cumulativeWeights[sizeIndex] <= weight) {
+				sizeIndex++;
+			}
+
+			int[] bounds = new int[sizes[sizeIndex] * 2];
+			for (int range = 0; range < bounds.length; range += 2) {
+				int width = random.nextInt(200);
+				bounds[range] = random.nextInt(100000 - width);
+				bounds[range + 1] = bounds[range] + width;
+			}
+			payloads.add(bounds);
+		}
+		return payloads;
+	}
+
+}
@@ -0,0 +1,271 @@
+package com.steven.ws.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.StringUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.steven.ws.WsCodeChallengeBootApplication;
+
+/**
+ * HTTP load generator for the three range endpoints. Each endpoint is driven by a fixed number of concurrent clients
+ * sending back to back requests for every configured concurrency level, and the latency percentiles, throughput and
+ * error rate of each run are written to a JSON report, @see {@link com.steven.ws.loadtest.LoadProfile} for the
+ * settings.
+ *
+ * <pre>
+ * mvn -Ploadtest test-compile exec:exec -Dloadtest.args="concurrency=1,16 sizes=10:90,5000:10 duration-seconds=30"
+ *
+ * Any response other than 2xx, including 429 from a full request lane, counts as an error; the report also lists the
+ * count of every status code seen. Requests failing without a response are counted under status 0.
+ * </pre>
+ */
+public final class ZipRangeLoadTest {
+
+	private static final String POST_CONTENT_TYPE = "application/json";
+
+	private final LoadProfile loadProfile;
+
+	private final List<int[]> payloads;
+
+	private final String baseUrl;
+
+	private ZipRangeLoadTest(LoadProfile loadProfile, String baseUrl) {
+		this.loadProfile = loadProfile;
+		this.payloads = loadProfile.generatePayloads();
+		this.baseUrl = baseUrl;
+	}
+
+	public static void main(String[] args) throws Exception {
+		LoadProfile loadProfile = new LoadProfile(args);
+
+		ConfigurableApplicationContext context = null;
+		String baseUrl = loadProfile.get("target");
+		if (!StringUtils.hasText(baseUrl)) {
+			context = SpringApplication.run(WsCodeChallengeBootApplication.class, "--server.port=0",
+					"--logging.level.com.steven.ws=WARN");
+			baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port")
+					+ context.getEnvironment().getProperty("server.servlet.context-path");
+		}
+
+		try {
+			new ZipRangeLoadTest(loadProfile, baseUrl).run();
+		} finally {
+			if (context != null) {
+				context.close();
+			}
+		}
+	}
+
+	private void run() throws Exception {
+		List<Map<String, Object>> results = new ArrayList<>();
+		for (int concurrency : loadProfile.getConcurrencyLevels()) {
+			for (String endpoint : loadProfile.getEndpoints()) {
+				drive(endpoint, concurrency, loadProfile.getInt("warmup-seconds"));
+				Map<String, Object> result = drive(endpoint, concurrency, loadProfile.getInt("duration-seconds"));
+				System.out.println(result);
+				results.add(result);
+			}
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("finishedAt", Instant.now().toString());
+		report.put("target", baseUrl);
+		report.put("settings", loadProfile.getSettings());
+		report.put("results", results);
+
+		File output = new File(loadProfile.get("output"));
+		if (output.getParentFile() != null) {
+			output.getParentFile().mkdirs();
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(output, report);
+		System.out.println("Load test report written to " + output.getAbsolutePath());
+	}
+
+	/**
+	 * Runs concurrent clients against one endpoint for the given time and summarizes their requests.
+	 */
+	private Map<String, Object> drive(String endpoint, int concurrency, int seconds) throws Exception {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+		List<Future<ClientResult>> futures = new ArrayList<>();
+		long start = System.nanoTime();
+		for (int i = 0; i < concurrency; i++) {
+			futures.add(clients.submit(() -> runClient(endpoint, deadline)));
+		}
+
+		ClientResult total = new ClientResult();
+		for (Future<ClientResult> future : futures) {
+			total.add(future.get());
+		}
+		long elapsedNanos = System.nanoTime() - start;
+		clients.shutdown();
+
+		long[] latencies = Arrays.copyOf(total.latencies, total.count);
+		Arrays.sort(latencies);
+		Map<String, Object> latencyMillis = new LinkedHashMap<>();
+		latencyMillis.put("p50", percentileMillis(latencies, 0.50));
+		latencyMillis.put("p95", percentileMillis(latencies, 0.95));
+		latencyMillis.put("p99", percentileMillis(latencies, 0.99));
+		latencyMillis.put("max", percentileMillis(latencies, 1.0));
+
+		Map<String, Object> result = new LinkedHashMap<>();
+		result.put("endpoint", endpoint);
+		result.put("concurrency", concurrency);
+		result.put("requests", total.count);
+		result.put("errors", total.errors);
+		result.put("errorRate", total.count == 0 ? 0.0 : (double) total.errors / total.count);
+		result.put("throughputPerSecond", total.count / (elapsedNanos / 1e9));
+		result.put("latencyMillis", latencyMillis);
+		result.put("statusCodes", total.statusCodes);
+		return result;
+	}
+
+	private ClientResult runClient(String endpoint, long deadline) {
+		ClientResult result = new ClientResult();
+		while (System.nanoTime() < deadline) {
+			int[] payload = payloads.get(ThreadLocalRandom.current().nextInt(payloads.size()));
+			long start = System.nanoTime();
+			int status;
+			try {
+				status = send(endpoint, payload);
+			} catch (IOException e) {
+				status = 0;
+			}
+			result.record(System.nanoTime() - start, status);
+		}
+		return result;
+	}
+
+	private int send(String endpoint, int[] payload) throws IOException {
+		HttpURLConnection connection;
+		switch (endpoint) {
+		case "query":
+			connection = open("/zipRange?zipCodeRanges=" + toPipeDelimited(payload));
+			break;
+		case "path":
+			connection = open("/zipRange/" + toPipeDelimited(payload));
+			break;
+		case "post":
+			connection = open("/zipRange");
+			connection.setRequestMethod("POST");
+			connection.setRequestProperty("Content-Type", POST_CONTENT_TYPE);
+			connection.setDoOutput(true);
+			byte[] body = toJson(payload).getBytes(StandardCharsets.UTF_8);
+			connection.setFixedLengthStreamingMode(body.length);
+			try (OutputStream outputStream = connection.getOutputStream()) {
+				outputStream.write(body);
+			}
+			break;
+		default:
+			throw new IllegalArgumentException("Unknown endpoint " + endpoint + ", expected query, path or post");
+		}
+
+		int status = connection.getResponseCode();
+		// read the whole body so the connection can be reused by the next request
+		try (InputStream inputStream = status < 400 ? connection.getInputStream() : connection.getErrorStream()) {
+			if (inputStream != null) {
+				byte[] buffer = new byte[8192];
+				while (inputStream.read(buffer) != -1) {
+					// discard
+				}
+			}
+		}
+		return status;
+	}
+
+	private HttpURLConnection open(String path) throws IOException {
+		HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+		connection.setRequestProperty("Accept", "application/json");
+		return connection;
+	}
+
+	private String toPipeDelimited(int[] payload) {
+		int rangeCount = Math.min(payload.length / 2, loadProfile.getInt("max-get-ranges"));
+		StringBuilder ranges = new StringBuilder(rangeCount * 14);
+		for (int i = 0; i < rangeCount * 2; i += 2) {
+			// the pipe is sent encoded, Tomcat rejects it raw in the request line
+			ranges.append(i == 0 ? "" : "%7C").append(format(payload[i])).append(',').append(format(payload[i + 1]));
+		}
+		return ranges.toString();
+	}
+
+	private static String toJson(int[] payload) {
+		StringBuilder json = new StringBuilder(payload.length * 16 + 20).append("{\"zipCodeRanges\":[");
+		for (int i = 0; i < payload.length; i += 2) {
+			json.append(i == 0 ? "" : ",").append("{\"zipRange\":[\"").append(format(payload[i])).append("\",\"")
+					.append(format(payload[i + 1])).append("\"]}");
+		}
+		return json.append("]}").toString();
+	}
+
+	private static String format(int zipCode) {
+		return String.format("%05d", zipCode);
+	}
+
+	private static double percentileMillis(long[] sortedLatencies, double percentile) {
+		if (sortedLatencies.length == 0) {
+			return 0.0;
+		}
+		int index = (int) Math.ceil(percentile * sortedLatencies.length) - 1;
+		return sortedLatencies[Math.max(index, 0)] / 1e6;
+	}
+
+	/**
+	 * Latencies and status codes recorded by one client, merged into the totals once the client is done.
+	 */
+	private static final class ClientResult {
+
+		private long[] latencies = new long[1024];
+
+		private int count;
+
+		private int errors;
+
+		private final Map<Integer, Integer> statusCodes = new TreeMap<>();
+
+		private void record(long latencyNanos, int status) {
+			if (count == latencies.length) {
+				latencies = Arrays.copyOf(latencies, count * 2);
+			}
+			latencies[count++] = latencyNanos;
+			if (status < 200 || status >= 300) {
+				errors++;
+			}
+			statusCodes.merge(status, 1, Integer::sum);
+		}
+
+		private void add(ClientResult other) {
+			if (count + other.count > latencies.length) {
+				latencies = Arrays.copyOf(latencies, count + other.count);
+			}
+			System.arraycopy(other.latencies, 0, latencies, count, other.count);
+			count += other.count;
+			errors += other.errors;
+			other.statusCodes.forEach((status, statusCount) -> statusCodes.merge(status, statusCount, Integer::sum));
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+package com.steven.ws.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class AsyncConfiguration {
+
+	/**
+	 * Bounded executor running range requests below the large request threshold, so cheap requests are never queued
+	 * behind large merges. Requests are rejected as soon as the queue is full.
+	 * 
+	 * @param threads
+	 *            the number of worker threads
+	 * @param queueCapacity
+	 *            the number of requests that may wait for a worker
+	 * @return the small request lane
+	 */
+	@Bean(name = "zipRangeSmallLaneExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor zipRangeSmallLaneExecutor(@Value("${ws.async.small.threads:16}") int threads,
+			@Value("${ws.async.small.queue-capacity:200}") int queueCapacity) {
+		return newLaneExecutor("small", threads, queueCapacity);
+	}
+
+	/**
+	 * Bounded executor running range requests at or above the large request threshold. Requests are rejected as soon
+	 * as the queue is full.
+	 * 
+	 * @param threads
+	 *            the number of worker threads
+	 * @param queueCapacity
+	 *            the number of requests that may wait for a worker
+	 * @return the large request lane
+	 */
+	@Bean(name = "zipRangeLargeLaneExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor zipRangeLargeLaneExecutor(@Value("${ws.async.large.threads:2}") int threads,
+			@Value("${ws.async.large.queue-capacity:8}") int queueCapacity) {
+		return newLaneExecutor("large", threads, queueCapacity);
+	}
+
+	private ThreadPoolExecutor newLaneExecutor(String lane, int threads, int queueCapacity) {
+		RejectedExecutionHandler rejectWhenFull = (task, executor) -> {
+			throw new RejectedExecutionException(
+					"The " + lane + " request queue is full, wait before sending the request again.");
+		};
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("zip-range-" + lane + "-"),
+				rejectWhenFull);
+	}
+
+}
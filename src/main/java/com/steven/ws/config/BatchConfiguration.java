@@ -0,0 +1,38 @@
+package com.steven.ws.config;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+@Configuration
+public class BatchConfiguration {
+
+	/**
+	 * Bounded executor evaluating the items of batch requests. Items are rejected as soon as the queue is full, so they
+	 * never run on the request thread, and the batch controller answers each rejected item with an error line.
+	 * 
+	 * @param threads
+	 *            the number of worker threads
+	 * @param queueCapacity
+	 *            the number of items that may wait for a worker
+	 * @return the batch executor
+	 */
+	@Bean(name = "zipRangeBatchExecutor", destroyMethod = "shutdown")
+	public ThreadPoolExecutor zipRangeBatchExecutor(@Value("${ws.batch.threads:8}") int threads,
+			@Value("${ws.batch.queue-capacity:1000}") int queueCapacity) {
+		RejectedExecutionHandler rejectWhenFull = (task, executor) -> {
+			throw new RejectedExecutionException("The batch queue is full, wait before sending the item again.");
+		};
+		return new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queueCapacity), new CustomizableThreadFactory("zip-range-batch-"),
+				rejectWhenFull);
+	}
+
+}
@@ -0,0 +1,24 @@
+package com.steven.ws.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MergeConfiguration {
+
+	/**
+	 * Pool used by {@link com.steven.ws.impl.WsCodeChallengeManager} to merge large inputs in parallel.
+	 * 
+	 * @param parallelism
+	 *            the number of worker threads, 0 uses one per available processor
+	 * @return the merge pool
+	 */
+	@Bean(name = "zipRangeMergePool", destroyMethod = "shutdown")
+	public ForkJoinPool zipRangeMergePool(@Value("${ws.merge.parallelism:0}") int parallelism) {
+		return new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+	}
+
+}
@@ -0,0 +1,47 @@
+package com.steven.ws.config;
+
+import java.io.IOException;
+
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.parser.ZipRangeBinaryCodec;
+
+/**
+ * Reads and writes {@link com.steven.ws.dto.PackedZipRangeDTO} bodies in the compact binary range format, @see
+ * {@link com.steven.ws.parser.ZipRangeBinaryCodec}. Picked up by Spring Boot as a converter bean, it only applies to
+ * requests sent or accepting {@value com.steven.ws.parser.ZipRangeBinaryCodec#MEDIA_TYPE_VALUE}, so JSON stays the
+ * default.
+ */
+@Component
+public class PackedZipRangeHttpMessageConverter extends AbstractHttpMessageConverter<PackedZipRangeDTO> {
+
+	public static final MediaType MEDIA_TYPE = MediaType.valueOf(ZipRangeBinaryCodec.MEDIA_TYPE_VALUE);
+
+	public PackedZipRangeHttpMessageConverter() {
+		super(MEDIA_TYPE);
+	}
+
+	@Override
+	protected boolean supports(Class<?> clazz) {
+		return PackedZipRangeDTO.class == clazz;
+	}
+
+	@Override
+	protected PackedZipRangeDTO readInternal(Class<? extends PackedZipRangeDTO> clazz, HttpInputMessage inputMessage)
+			throws IOException {
+		return new PackedZipRangeDTO(ZipRangeBinaryCodec.read(inputMessage.getBody()));
+	}
+
+	@Override
+	protected void writeInternal(PackedZipRangeDTO zipRangeDTO, HttpOutputMessage outputMessage) throws IOException {
+		byte[] encoded = ZipRangeBinaryCodec.encode(zipRangeDTO.getZipCodeRanges());
+		outputMessage.getHeaders().setContentLength(encoded.length);
+		outputMessage.getBody().write(encoded);
+	}
+
+}
@@ -0,0 +1,46 @@
+package com.steven.ws.config;
+
+import javax.servlet.DispatcherType;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the request payload size of every zip range endpoint as {@code ws.zip.range.request.payload}, tagged with
+ * the HTTP method and the matched endpoint pattern. Bodies are measured by their declared content length; GET
+ * requests, whose ranges travel in the path or query string, are measured by the length of both. Endpoints answering
+ * asynchronously are dispatched a second time to write their response, which is not recorded again.
+ */
+public class RequestPayloadMetricsInterceptor implements HandlerInterceptor {
+
+	private final MeterRegistry meterRegistry;
+
+	public RequestPayloadMetricsInterceptor(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+		Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		if (pattern == null || request.getDispatcherType() == DispatcherType.ASYNC) {
+			return true;
+		}
+
+		long payloadBytes = request.getContentLengthLong();
+		if (payloadBytes < 0) {
+			String queryString = request.getQueryString();
+			payloadBytes = request.getRequestURI().length() + (queryString == null ? 0 : queryString.length());
+		}
+
+		DistributionSummary.builder("ws.zip.range.request.payload").description("Request payload size per endpoint")
+				.baseUnit("bytes").tag("method", request.getMethod()).tag("endpoint", pattern.toString())
+				.publishPercentileHistogram().register(meterRegistry).record(payloadBytes);
+		return true;
+	}
+
+}
@@ -0,0 +1,22 @@
+package com.steven.ws.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class WebConfiguration implements WebMvcConfigurer {
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Override
+	public void addInterceptors(InterceptorRegistry registry) {
+		registry.addInterceptor(new RequestPayloadMetricsInterceptor(meterRegistry)).addPathPatterns("/zipRange/**",
+				"/zipRange");
+	}
+
+}
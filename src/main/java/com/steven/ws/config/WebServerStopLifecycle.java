@@ -0,0 +1,55 @@
+package com.steven.ws.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.boot.web.server.WebServer;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stops the web server as part of the lifecycle stop, so lifecycle beans in a lower phase are stopped once no request
+ * can reach them anymore. This version of Spring Boot only stops the server after every bean has been stopped and
+ * destroyed; the phase matches the one later versions stop it in.
+ */
+@Component
+public class WebServerStopLifecycle implements SmartLifecycle {
+
+	/**
+	 * Lifecycle beans in a lower phase are stopped after the web server.
+	 */
+	public static final int PHASE = Integer.MAX_VALUE - 1;
+
+	@Autowired
+	private ApplicationContext applicationContext;
+
+	private volatile boolean running;
+
+	@Override
+	public void start() {
+		// the context starts the web server itself once the lifecycle beans have started
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		if (applicationContext instanceof WebServerApplicationContext) {
+			WebServer webServer = ((WebServerApplicationContext) applicationContext).getWebServer();
+			if (webServer != null) {
+				webServer.stop();
+			}
+		}
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return PHASE;
+	}
+
+}
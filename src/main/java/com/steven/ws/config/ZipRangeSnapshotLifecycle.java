@@ -0,0 +1,43 @@
+package com.steven.ws.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import com.steven.ws.impl.ZipRangeSnapshotStore;
+
+/**
+ * Restores the restriction sets of the last snapshot before the web server accepts requests, and saves them once it
+ * has stopped, @see {@link com.steven.ws.impl.ZipRangeSnapshotStore}
+ */
+@Component
+public class ZipRangeSnapshotLifecycle implements SmartLifecycle {
+
+	@Autowired
+	private ZipRangeSnapshotStore zipRangeSnapshotStore;
+
+	private volatile boolean running;
+
+	@Override
+	public void start() {
+		zipRangeSnapshotStore.restore();
+		running = true;
+	}
+
+	@Override
+	public void stop() {
+		running = false;
+		zipRangeSnapshotStore.save();
+	}
+
+	@Override
+	public boolean isRunning() {
+		return running;
+	}
+
+	@Override
+	public int getPhase() {
+		return WebServerStopLifecycle.PHASE - 1;
+	}
+
+}
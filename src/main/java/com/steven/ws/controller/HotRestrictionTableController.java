@@ -0,0 +1,108 @@
+package com.steven.ws.controller;
+
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.dto.ZipCodeRestrictionDTO;
+import com.steven.ws.impl.HotRestrictionTables;
+import com.steven.ws.impl.WsCodeChallengeManager;
+import com.steven.ws.impl.ZipCodeBitTable;
+import com.steven.ws.impl.ZipRangeEngine;
+
+@RestController
+@RequestMapping(path = "/zipRange/hot")
+public class HotRestrictionTableController {
+
+	private final Logger logger = LoggerFactory.getLogger(HotRestrictionTableController.class);
+
+	@Autowired
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Autowired
+	private HotRestrictionTables hotRestrictionTables;
+
+	@GetMapping(path = "", produces = "application/json")
+	public ResponseEntity<Set<String>> getHotRestrictionSetNames() {
+		return ResponseEntity.ok(hotRestrictionTables.getTableNames());
+	}
+
+	@GetMapping(path = "/{name}", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getHotRestrictionSet(
+			@PathVariable(required = true, name = "name") String name) {
+		long[] ranges = hotRestrictionTables.getRanges(name);
+		if (ranges == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return ResponseEntity.ok(ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@PostMapping(path = "/{name}")
+	public ResponseEntity<Void> addRangesToHotRestrictionSet(
+			@PathVariable(required = true, name = "name") String name, @RequestBody PackedZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.info("Adding {} ranges to hot restriction set {}", zipRangeDTO.getZipCodeRanges().length, name);
+		hotRestrictionTables.addRanges(name,
+				wsCodeChallengeManager.retrieveMinimumPackedRangeSet(zipRangeDTO.getZipCodeRanges()));
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@PutMapping(path = "/{name}")
+	public ResponseEntity<Void> replaceHotRestrictionSet(@PathVariable(required = true, name = "name") String name,
+			@RequestBody PackedZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.info("Replacing hot restriction set {} with {} ranges", name, zipRangeDTO.getZipCodeRanges().length);
+		hotRestrictionTables.publish(name,
+				wsCodeChallengeManager.retrieveMinimumPackedRangeSet(zipRangeDTO.getZipCodeRanges()));
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@DeleteMapping(path = "/{name}")
+	public ResponseEntity<Void> removeHotRestrictionSet(@PathVariable(required = true, name = "name") String name) {
+		logger.info("Removing hot restriction set {}", name);
+		if (!hotRestrictionTables.removeTable(name)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@GetMapping(path = "/{name}/restricted/{zipCode}", produces = "application/json")
+	public ResponseEntity<ZipCodeRestrictionDTO> getZipCodeRestriction(
+			@PathVariable(required = true, name = "name") String name,
+			@PathVariable(required = true, name = "zipCode") String zipCode) {
+		ZipCodeBitTable table = hotRestrictionTables.getTable(name);
+		if (table == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		boolean restricted = table.contains(wsCodeChallengeManager.parseZipCode(zipCode));
+
+		return ResponseEntity.ok(new ZipCodeRestrictionDTO(zipCode, restricted));
+	}
+}
@@ -0,0 +1,115 @@
+package com.steven.ws.controller;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.dto.RestrictedItemsDTO;
+import com.steven.ws.dto.ZipRangeBatchDTO;
+import com.steven.ws.dto.ZipRangeDTO;
+import com.steven.ws.impl.ItemRestrictionIndex;
+import com.steven.ws.impl.WsCodeChallengeManager;
+import com.steven.ws.impl.ZipRangeEngine;
+
+@RestController
+@RequestMapping(path = "/zipRange/items")
+public class ItemRestrictionController {
+
+	private final Logger logger = LoggerFactory.getLogger(ItemRestrictionController.class);
+
+	@Autowired
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Autowired
+	private ItemRestrictionIndex itemRestrictionIndex;
+
+	/**
+	 * Indexes the ranges of every item of the request, replacing the ranges of items that were already indexed. Items
+	 * not in the request are left as they are. If any item is invalid, none is indexed.
+	 *
+	 * @param zipRangeBatchDTO
+	 *            the ranges of each item, keyed by item id
+	 * @return 204 once every item is indexed
+	 */
+	@PutMapping(path = "")
+	public ResponseEntity<Void> putItems(@RequestBody ZipRangeBatchDTO zipRangeBatchDTO) {
+
+		if (zipRangeBatchDTO == null || CollectionUtils.isEmpty(zipRangeBatchDTO.getItems())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+		for (ZipRangeDTO item : zipRangeBatchDTO.getItems().values()) {
+			if (item == null || CollectionUtils.isEmpty(item.getZipCodeRanges())) {
+				return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+			}
+		}
+
+		logger.info("Indexing the ranges of {} items", zipRangeBatchDTO.getItems().size());
+		// every item is validated and merged before any is indexed, so an invalid item leaves the index untouched
+		Map<String, long[]> items = new HashMap<>();
+		for (Map.Entry<String, ZipRangeDTO> item : zipRangeBatchDTO.getItems().entrySet()) {
+			items.put(item.getKey(), wsCodeChallengeManager
+					.retrieveMinimumPackedRangeSet(ZipRangeConverter.convertZipRangeDTOtoList(item.getValue())));
+		}
+		itemRestrictionIndex.putItems(items);
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@PutMapping(path = "/{itemId}")
+	public ResponseEntity<Void> putItem(@PathVariable(required = true, name = "itemId") String itemId,
+			@RequestBody PackedZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.debug("Indexing {} ranges for item {}", zipRangeDTO.getZipCodeRanges().length, itemId);
+		itemRestrictionIndex.putItem(itemId,
+				wsCodeChallengeManager.retrieveMinimumPackedRangeSet(zipRangeDTO.getZipCodeRanges()));
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@GetMapping(path = "/{itemId}", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getItem(@PathVariable(required = true, name = "itemId") String itemId) {
+		long[] ranges = itemRestrictionIndex.getItemRanges(itemId);
+		if (ranges == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return ResponseEntity.ok(ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@DeleteMapping(path = "/{itemId}")
+	public ResponseEntity<Void> removeItem(@PathVariable(required = true, name = "itemId") String itemId) {
+		logger.debug("Removing item {}", itemId);
+		if (!itemRestrictionIndex.removeItem(itemId)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@GetMapping(path = "/restricted/{zipCode}", produces = "application/json")
+	public ResponseEntity<RestrictedItemsDTO> getRestrictedItems(
+			@PathVariable(required = true, name = "zipCode") String zipCode) {
+		List<String> itemIds = itemRestrictionIndex.getRestrictedItems(wsCodeChallengeManager.parseZipCode(zipCode));
+
+		return ResponseEntity.ok(new RestrictedItemsDTO(zipCode, itemIds));
+	}
+}
@@ -1,8 +1,12 @@
 package com.steven.ws.controller;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -19,11 +23,18 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.steven.ws.bo.ZipCodeRangeBO;
-import com.steven.ws.bo.ZipRangeBO;
-import com.steven.ws.dto.ZipCodeRangeDTO;
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.dto.ZipCodeCheckDTO;
+import com.steven.ws.dto.ZipCodeRestrictionDTO;
 import com.steven.ws.dto.ZipRangeDTO;
+import com.steven.ws.dto.ZipRangeOperandsDTO;
+import com.steven.ws.dto.ZipRangeSourcesDTO;
+import com.steven.ws.impl.MergeMode;
+import com.steven.ws.impl.SetOperation;
 import com.steven.ws.impl.WsCodeChallengeManager;
+import com.steven.ws.impl.ZipRangeRegistry;
+import com.steven.ws.parser.PipeDelimitedRangeParser;
+import com.steven.ws.parser.ZipRangeBinaryCodec;
 
 @RestController
 @RequestMapping(path = "/zipRange")
@@ -34,77 +45,265 @@ public class WsCodeChallengeController {
 	@Autowired
 	private WsCodeChallengeManager wsCodeChallengeManager;
 
+	@Autowired
+	private ZipRangeRegistry zipRangeRegistry;
+
+	@Autowired
+	private ZipRangeRequestLanes zipRangeRequestLanes;
+
+	@Autowired
+	private ZipRangeRequestTracer zipRangeRequestTracer;
+
 	@GetMapping(path = "", produces = "application/json")
-	public ResponseEntity<List<List<String>>> getRangeWithQueryParameters(
-			@RequestParam(required = true, name = "zipCodeRanges") String zipCodeRanges) {
-		logger.info("Getting request by QUERY parameter to retrieve minimum ranges required with input {}",
-				zipCodeRanges);
+	public CompletableFuture<ResponseEntity<List<List<String>>>> getRangeWithQueryParameters(
+			@RequestParam(required = true, name = "zipCodeRanges") String zipCodeRanges,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+		logger.debug("Getting request by QUERY parameter to retrieve minimum ranges required");
 
 		if (StringUtils.isEmpty(zipCodeRanges)) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		return retrieveRanges(PipeDelimitedRangeParser.parse(zipCodeRanges), mergeMode);
+	}
+
+	@GetMapping(path = "", produces = ZipRangeBinaryCodec.MEDIA_TYPE_VALUE)
+	public CompletableFuture<ResponseEntity<PackedZipRangeDTO>> getPackedRangeWithQueryParameters(
+			@RequestParam(required = true, name = "zipCodeRanges") String zipCodeRanges,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+		logger.debug("Getting request by QUERY parameter to retrieve minimum packed ranges required");
+
+		if (StringUtils.isEmpty(zipCodeRanges)) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		return retrievePackedRanges(PipeDelimitedRangeParser.parse(zipCodeRanges), mergeMode);
+	}
+
+	/**
+	 * One off check of a zip code against ranges sent with the request. The ranges are parsed and merged on every call,
+	 * so repeated checks against the same restrictions should register them once as a restriction set and use
+	 * {@link #getRegisteredZipCodeRestriction(String, String)} instead.
+	 */
+	@GetMapping(path = "/restricted", produces = "application/json")
+	public ResponseEntity<ZipCodeRestrictionDTO> getZipCodeRestriction(
+			@RequestParam(required = true, name = "zipCodeRanges") String zipCodeRanges,
+			@RequestParam(required = true, name = "zipCode") String zipCode) {
+		logger.debug("Getting request to check a zip code against ranges");
+
+		if (StringUtils.isEmpty(zipCodeRanges) || StringUtils.isEmpty(zipCode)) {
 			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		}
 
-		List<List<String>> returnedList = wsCodeChallengeManager
-				.retrieveMinimumRangeSetFromArray(convertPipeDelimitedToList(zipCodeRanges));
-		logger.info("Returned list of ranges {}", returnedList);
+		long[] packedRanges = PipeDelimitedRangeParser.parse(zipCodeRanges);
+		boolean restricted = zipRangeRequestTracer.trace("Zip code check", () -> wsCodeChallengeManager
+				.isZipCodeRestricted(wsCodeChallengeManager.buildRestrictionIndex(packedRanges), zipCode),
+				packedRanges, zipCode);
+
+		return ResponseEntity.ok(new ZipCodeRestrictionDTO(zipCode, restricted));
+	}
+
+	/**
+	 * Checks a zip code against a restriction set registered with {@link com.steven.ws.controller.ZipRangeSetController},
+	 * the same as {@code GET /zipRange/sets/{name}/restricted/{zipCode}}. The ranges were merged when the set was
+	 * registered, so the check does not merge anything.
+	 */
+	@GetMapping(path = "/restricted/{name}/{zipCode}", produces = "application/json")
+	public ResponseEntity<ZipCodeRestrictionDTO> getRegisteredZipCodeRestriction(
+			@PathVariable(required = true, name = "name") String name,
+			@PathVariable(required = true, name = "zipCode") String zipCode) {
+		if (!zipRangeRegistry.containsRestrictionSet(name)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		boolean restricted = zipRangeRegistry.isZipCodeRestricted(name, wsCodeChallengeManager.parseZipCode(zipCode));
+
+		return ResponseEntity.ok(new ZipCodeRestrictionDTO(zipCode, restricted));
+	}
+
+	@PostMapping(path = "/restricted", produces = "application/json")
+	public ResponseEntity<List<ZipCodeRestrictionDTO>> getZipCodeRestrictions(
+			@RequestBody ZipCodeCheckDTO zipCodeCheckDTO) {
+
+		if (zipCodeCheckDTO == null || CollectionUtils.isEmpty(zipCodeCheckDTO.getZipCodeRanges())
+				|| CollectionUtils.isEmpty(zipCodeCheckDTO.getZipCodes())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.debug("Getting request to check {} zip codes against {} ranges", zipCodeCheckDTO.getZipCodes().size(),
+				zipCodeCheckDTO.getZipCodeRanges().size());
+		List<String> zipCodes = zipCodeCheckDTO.getZipCodes();
+		List<List<String>> zipCodeRanges = ZipRangeConverter
+				.convertZipCodeRangeDTOsToList(zipCodeCheckDTO.getZipCodeRanges());
+		boolean[] restricted = zipRangeRequestTracer.trace("Zip codes check",
+				() -> wsCodeChallengeManager.checkZipCodesRestricted(zipCodeRanges, zipCodes), zipCodeRanges, zipCodes);
+
+		List<ZipCodeRestrictionDTO> returnedList = new ArrayList<>(zipCodes.size());
+		for (int i = 0; i < restricted.length; i++) {
+			returnedList.add(new ZipCodeRestrictionDTO(zipCodes.get(i), restricted[i]));
+		}
 
 		return ResponseEntity.ok(returnedList);
 	}
 
 	@GetMapping(path = "/{zipCodeRanges}")
-	public ResponseEntity<List<List<String>>> getRangeWithPathParameters(
-			@PathVariable(required = true, name = "zipCodeRanges") String zipCodeRanges) {
-		logger.info("Getting request by PATH parameter to retrieve minimum ranges required with input {}",
-				zipCodeRanges);
+	public CompletableFuture<ResponseEntity<List<List<String>>>> getRangeWithPathParameters(
+			@PathVariable(required = true, name = "zipCodeRanges") String zipCodeRanges,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+		logger.debug("Getting request by PATH parameter to retrieve minimum ranges required");
+
+		if (StringUtils.isEmpty(zipCodeRanges)) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		return retrieveRanges(PipeDelimitedRangeParser.parse(zipCodeRanges), mergeMode);
+	}
+
+	@GetMapping(path = "/{zipCodeRanges}", produces = ZipRangeBinaryCodec.MEDIA_TYPE_VALUE)
+	public CompletableFuture<ResponseEntity<PackedZipRangeDTO>> getPackedRangeWithPathParameters(
+			@PathVariable(required = true, name = "zipCodeRanges") String zipCodeRanges,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+		logger.debug("Getting request by PATH parameter to retrieve minimum packed ranges required");
 
 		if (StringUtils.isEmpty(zipCodeRanges)) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		return retrievePackedRanges(PipeDelimitedRangeParser.parse(zipCodeRanges), mergeMode);
+	}
+
+	@PostMapping(path = "")
+	public CompletableFuture<ResponseEntity<List<List<String>>>> getRangeWithRequestObject(
+			@RequestBody PackedZipRangeDTO zipRangeDTO,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		logger.debug("Getting request by POST with JSON object to retrieve minimum ranges required with {} ranges",
+				zipRangeDTO.getZipCodeRanges().length);
+		return retrieveRanges(zipRangeDTO.getZipCodeRanges(), mergeMode);
+	}
+
+	@PostMapping(path = "", produces = ZipRangeBinaryCodec.MEDIA_TYPE_VALUE)
+	public CompletableFuture<ResponseEntity<PackedZipRangeDTO>> getPackedRangeWithRequestObject(
+			@RequestBody PackedZipRangeDTO zipRangeDTO,
+			@RequestParam(required = false, name = "mergeMode", defaultValue = "SORT_SWEEP") MergeMode mergeMode) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return CompletableFuture.completedFuture(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+		}
+
+		logger.debug("Getting request by POST to retrieve minimum packed ranges required with {} ranges",
+				zipRangeDTO.getZipCodeRanges().length);
+		return retrievePackedRanges(zipRangeDTO.getZipCodeRanges(), mergeMode);
+	}
+
+	@PostMapping(path = "/sources")
+	public ResponseEntity<List<List<String>>> getRangeFromSortedSources(
+			@RequestBody ZipRangeSourcesDTO zipRangeSourcesDTO) {
+
+		if (zipRangeSourcesDTO == null || CollectionUtils.isEmpty(zipRangeSourcesDTO.getSources())) {
 			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		}
 
-		List<List<String>> returnedList = wsCodeChallengeManager
-				.retrieveMinimumRangeSetFromArray(convertPipeDelimitedToList(zipCodeRanges));
-		logger.info("Returned list of ranges {}", returnedList);
+		List<List<List<String>>> sortedSources = new ArrayList<>();
+		for (ZipRangeDTO source : zipRangeSourcesDTO.getSources()) {
+			if (source == null || CollectionUtils.isEmpty(source.getZipCodeRanges())) {
+				return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+			}
+			sortedSources.add(ZipRangeConverter.convertZipRangeDTOtoList(source));
+		}
+
+		logger.debug("Getting request by POST with {} sorted sources to retrieve minimum ranges required",
+				sortedSources.size());
+		List<List<String>> returnedList = zipRangeRequestTracer.trace("Sorted sources merge",
+				() -> wsCodeChallengeManager.retrieveMinimumRangeSetFromSortedSources(sortedSources),
+				sortedSources.toArray());
 
 		return ResponseEntity.ok(returnedList);
 	}
 
-	@PostMapping(path = "")
-	public ResponseEntity<List<List<String>>> getRangeWithRequestObject(@RequestBody ZipRangeDTO zipRangeDTO) {
+	@PostMapping(path = "/union", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRangeUnion(@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineRanges(zipRangeOperandsDTO, SetOperation.UNION);
+	}
+
+	@PostMapping(path = "/intersection", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRangeIntersection(
+			@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineRanges(zipRangeOperandsDTO, SetOperation.INTERSECTION);
+	}
+
+	@PostMapping(path = "/difference", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRangeDifference(
+			@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineRanges(zipRangeOperandsDTO, SetOperation.DIFFERENCE);
+	}
+
+	@PostMapping(path = "/complement", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRangeComplement(@RequestBody ZipRangeDTO zipRangeDTO) {
 
 		if (zipRangeDTO == null || CollectionUtils.isEmpty(zipRangeDTO.getZipCodeRanges())) {
 			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		}
 
-		logger.info("Getting request by POST with JSON object to retrieve minimum ranges required with input {}",
-				zipRangeDTO.getZipCodeRanges());
-		ZipRangeBO zipRangeBO = convertZipRangeDTOtoBO(zipRangeDTO);
-		List<List<String>> returnedList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(zipRangeBO);
-		logger.info("Returned list of ranges {}", returnedList);
+		logger.debug("Getting request by POST to retrieve the complement of {} ranges",
+				zipRangeDTO.getZipCodeRanges().size());
+		List<List<String>> zipCodeRanges = ZipRangeConverter.convertZipRangeDTOtoList(zipRangeDTO);
+		List<List<String>> returnedList = zipRangeRequestTracer.trace("Complement",
+				() -> wsCodeChallengeManager.retrieveRangeSetComplement(zipCodeRanges), zipCodeRanges);
 
 		return ResponseEntity.ok(returnedList);
 	}
 
-	private List<List<String>> convertPipeDelimitedToList(String pipeDelimited) {
+	@PostMapping(path = "/stream", consumes = { "text/plain", "application/x-ndjson" }, produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRangeWithStream(InputStream zipCodeRanges) throws IOException {
+		logger.debug("Getting request by POST with streamed body to retrieve minimum ranges required");
 
-		List<List<String>> list = new ArrayList<>();
+		List<List<String>> returnedList = wsCodeChallengeManager
+				.retrieveMinimumRangeSetFromStream(new InputStreamReader(zipCodeRanges, StandardCharsets.UTF_8));
+		logger.debug("Returned list of ranges {}", returnedList);
 
-		for (String item : pipeDelimited.split("\\|")) {
-			list.add(Arrays.asList(item.split(",")));
-		}
+		return ResponseEntity.ok(returnedList);
+	}
 
-		return list;
+	/**
+	 * Merges the ranges on the request lane matching their number, @see
+	 * {@link com.steven.ws.controller.ZipRangeRequestLanes}
+	 */
+	private CompletableFuture<ResponseEntity<List<List<String>>>> retrieveRanges(long[] packedRanges,
+			MergeMode mergeMode) {
+		return zipRangeRequestLanes.submit(packedRanges.length,
+				() -> ResponseEntity.ok(zipRangeRequestTracer.trace("Minimum ranges",
+						() -> wsCodeChallengeManager.retrieveMinimumRangeSetFromPackedRanges(packedRanges, mergeMode),
+						packedRanges, mergeMode)));
+	}
 
+	private CompletableFuture<ResponseEntity<PackedZipRangeDTO>> retrievePackedRanges(long[] packedRanges,
+			MergeMode mergeMode) {
+		return zipRangeRequestLanes.submit(packedRanges.length,
+				() -> ResponseEntity.ok(new PackedZipRangeDTO(zipRangeRequestTracer.trace("Minimum packed ranges",
+						() -> wsCodeChallengeManager.retrieveMinimumPackedRangeSet(packedRanges, mergeMode),
+						packedRanges, mergeMode))));
 	}
 
-	private ZipRangeBO convertZipRangeDTOtoBO(ZipRangeDTO zipRangeDTO) {
-		ZipRangeBO zipRangeBO = new ZipRangeBO();
-		List<ZipCodeRangeBO> ranges = new ArrayList<>();
-		for (ZipCodeRangeDTO rangeDto : zipRangeDTO.getZipCodeRanges()) {
-			ZipCodeRangeBO zipCodeRangeBO = new ZipCodeRangeBO();
-			zipCodeRangeBO.setZipRange(rangeDto.getZipRange());
-			ranges.add(zipCodeRangeBO);
+	private ResponseEntity<List<List<String>>> combineRanges(ZipRangeOperandsDTO zipRangeOperandsDTO,
+			SetOperation setOperation) {
+
+		if (zipRangeOperandsDTO == null || CollectionUtils.isEmpty(zipRangeOperandsDTO.getLeft())
+				|| CollectionUtils.isEmpty(zipRangeOperandsDTO.getRight())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
 		}
-		zipRangeBO.setZipCodeRanges(ranges);
-		return zipRangeBO;
+
+		logger.debug("Getting request by POST to retrieve the {} of {} and {} ranges", setOperation,
+				zipRangeOperandsDTO.getLeft().size(), zipRangeOperandsDTO.getRight().size());
+		List<List<String>> left = ZipRangeConverter.convertZipCodeRangeDTOsToList(zipRangeOperandsDTO.getLeft());
+		List<List<String>> right = ZipRangeConverter.convertZipCodeRangeDTOsToList(zipRangeOperandsDTO.getRight());
+		List<List<String>> returnedList = zipRangeRequestTracer.trace(setOperation.toString(),
+				() -> wsCodeChallengeManager.retrieveRangeSetCombination(left, right, setOperation), left, right);
+
+		return ResponseEntity.ok(returnedList);
 	}
 }
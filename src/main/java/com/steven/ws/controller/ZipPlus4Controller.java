@@ -0,0 +1,118 @@
+package com.steven.ws.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.steven.ws.dto.ZipCodeCheckDTO;
+import com.steven.ws.dto.ZipCodeRestrictionDTO;
+import com.steven.ws.dto.ZipRangeDTO;
+import com.steven.ws.dto.ZipRangeOperandsDTO;
+import com.steven.ws.impl.SetOperation;
+import com.steven.ws.impl.WsCodeChallengeManager;
+
+/**
+ * ZIP+4 versions of the range endpoints, taking the same request bodies with 9 digit codes, e.g. 94133-1234, or 5
+ * digit zip codes standing for all of their ZIP+4 codes.
+ */
+@RestController
+@RequestMapping(path = "/zipRange/plus4")
+public class ZipPlus4Controller {
+
+	private final Logger logger = LoggerFactory.getLogger(ZipPlus4Controller.class);
+
+	@Autowired
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Autowired
+	private ZipRangeRequestTracer zipRangeRequestTracer;
+
+	@PostMapping(path = "", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getZipPlus4RangeWithRequestObject(@RequestBody ZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || CollectionUtils.isEmpty(zipRangeDTO.getZipCodeRanges())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.debug("Getting request by POST to retrieve minimum ZIP+4 ranges required with {} ranges",
+				zipRangeDTO.getZipCodeRanges().size());
+		List<List<String>> zipCodeRanges = ZipRangeConverter.convertZipRangeDTOtoList(zipRangeDTO);
+		List<List<String>> returnedList = zipRangeRequestTracer.trace("Minimum ZIP+4 ranges",
+				() -> wsCodeChallengeManager.retrieveMinimumZipPlus4RangeSet(zipCodeRanges), zipCodeRanges);
+
+		return ResponseEntity.ok(returnedList);
+	}
+
+	@PostMapping(path = "/union", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getZipPlus4RangeUnion(
+			@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineZipPlus4Ranges(zipRangeOperandsDTO, SetOperation.UNION);
+	}
+
+	@PostMapping(path = "/intersection", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getZipPlus4RangeIntersection(
+			@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineZipPlus4Ranges(zipRangeOperandsDTO, SetOperation.INTERSECTION);
+	}
+
+	@PostMapping(path = "/difference", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getZipPlus4RangeDifference(
+			@RequestBody ZipRangeOperandsDTO zipRangeOperandsDTO) {
+		return combineZipPlus4Ranges(zipRangeOperandsDTO, SetOperation.DIFFERENCE);
+	}
+
+	@PostMapping(path = "/restricted", produces = "application/json")
+	public ResponseEntity<List<ZipCodeRestrictionDTO>> getZipPlus4CodeRestrictions(
+			@RequestBody ZipCodeCheckDTO zipCodeCheckDTO) {
+
+		if (zipCodeCheckDTO == null || CollectionUtils.isEmpty(zipCodeCheckDTO.getZipCodeRanges())
+				|| CollectionUtils.isEmpty(zipCodeCheckDTO.getZipCodes())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.debug("Getting request to check {} ZIP+4 codes against {} ranges",
+				zipCodeCheckDTO.getZipCodes().size(), zipCodeCheckDTO.getZipCodeRanges().size());
+		List<String> zipCodes = zipCodeCheckDTO.getZipCodes();
+		List<List<String>> zipCodeRanges = ZipRangeConverter
+				.convertZipCodeRangeDTOsToList(zipCodeCheckDTO.getZipCodeRanges());
+		boolean[] restricted = zipRangeRequestTracer.trace("ZIP+4 codes check",
+				() -> wsCodeChallengeManager.checkZipPlus4CodesRestricted(zipCodeRanges, zipCodes), zipCodeRanges,
+				zipCodes);
+
+		List<ZipCodeRestrictionDTO> returnedList = new ArrayList<>(zipCodes.size());
+		for (int i = 0; i < restricted.length; i++) {
+			returnedList.add(new ZipCodeRestrictionDTO(zipCodes.get(i), restricted[i]));
+		}
+
+		return ResponseEntity.ok(returnedList);
+	}
+
+	private ResponseEntity<List<List<String>>> combineZipPlus4Ranges(ZipRangeOperandsDTO zipRangeOperandsDTO,
+			SetOperation setOperation) {
+
+		if (zipRangeOperandsDTO == null || CollectionUtils.isEmpty(zipRangeOperandsDTO.getLeft())
+				|| CollectionUtils.isEmpty(zipRangeOperandsDTO.getRight())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.debug("Getting request by POST to retrieve the ZIP+4 {} of {} and {} ranges", setOperation,
+				zipRangeOperandsDTO.getLeft().size(), zipRangeOperandsDTO.getRight().size());
+		List<List<String>> left = ZipRangeConverter.convertZipCodeRangeDTOsToList(zipRangeOperandsDTO.getLeft());
+		List<List<String>> right = ZipRangeConverter.convertZipCodeRangeDTOsToList(zipRangeOperandsDTO.getRight());
+		List<List<String>> returnedList = zipRangeRequestTracer.trace("ZIP+4 " + setOperation,
+				() -> wsCodeChallengeManager.retrieveZipPlus4RangeSetCombination(left, right, setOperation), left,
+				right);
+
+		return ResponseEntity.ok(returnedList);
+	}
+}
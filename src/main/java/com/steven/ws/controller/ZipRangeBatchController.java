@@ -0,0 +1,136 @@
+package com.steven.ws.controller;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import com.steven.ws.dto.ZipRangeBatchDTO;
+import com.steven.ws.dto.ZipRangeBatchResultDTO;
+import com.steven.ws.dto.ZipRangeDTO;
+import com.steven.ws.impl.WsCodeChallengeManager;
+
+@RestController
+@RequestMapping(path = "/zipRange/batch")
+public class ZipRangeBatchController {
+
+	private static final MediaType APPLICATION_NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+	private final Logger logger = LoggerFactory.getLogger(ZipRangeBatchController.class);
+
+	@Autowired
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Autowired
+	@Qualifier("zipRangeBatchExecutor")
+	private Executor zipRangeBatchExecutor;
+
+	@Value("${ws.batch.timeout-millis:60000}")
+	private long timeoutMillis;
+
+	/**
+	 * Computes the minimum set of ranges for every item of the request. Items are evaluated on the batch executor and
+	 * each result, or the error for that item, is streamed back as one NDJSON line as soon as it is ready, so results
+	 * arrive in completion order rather than request order. An item arriving while the batch queue is full gets an
+	 * error line straight away. Once the response is complete, failed or timed out, no more items are started.
+	 * 
+	 * @param zipRangeBatchDTO
+	 *            the ranges of each item, keyed by item id
+	 * @return the stream of per item results
+	 */
+	@PostMapping(path = "", produces = "application/x-ndjson")
+	public ResponseEntity<ResponseBodyEmitter> getRangesForBatch(@RequestBody ZipRangeBatchDTO zipRangeBatchDTO) {
+
+		if (zipRangeBatchDTO == null || CollectionUtils.isEmpty(zipRangeBatchDTO.getItems())) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.info("Getting batch request to retrieve minimum ranges required for {} items",
+				zipRangeBatchDTO.getItems().size());
+
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+		AtomicBoolean open = new AtomicBoolean(true);
+		emitter.onTimeout(() -> open.set(false));
+		emitter.onError(e -> open.set(false));
+		emitter.onCompletion(() -> open.set(false));
+
+		AtomicInteger remainingItems = new AtomicInteger(zipRangeBatchDTO.getItems().size());
+		for (Map.Entry<String, ZipRangeDTO> item : zipRangeBatchDTO.getItems().entrySet()) {
+			if (!open.get()) {
+				break;
+			}
+
+			try {
+				// items still queued when the response ends are skipped rather than computed for nobody
+				CompletableFuture
+						.supplyAsync(() -> open.get() ? retrieveItemRanges(item.getKey(), item.getValue()) : null,
+								zipRangeBatchExecutor)
+						.thenAccept(result -> sendResult(emitter, result, remainingItems, open));
+			} catch (RejectedExecutionException e) {
+				sendResult(emitter, new ZipRangeBatchResultDTO(item.getKey(), null, e.getMessage()), remainingItems,
+						open);
+			}
+		}
+
+		return ResponseEntity.ok().contentType(APPLICATION_NDJSON).body(emitter);
+	}
+
+	private ZipRangeBatchResultDTO retrieveItemRanges(String itemId, ZipRangeDTO zipRangeDTO) {
+		if (zipRangeDTO == null || CollectionUtils.isEmpty(zipRangeDTO.getZipCodeRanges())) {
+			return new ZipRangeBatchResultDTO(itemId, null,
+					"The zipCodeRanges provided is null or empty. Check your parameters and try again.");
+		}
+
+		try {
+			List<List<String>> returnedList = wsCodeChallengeManager
+					.retrieveMinimumRangeSetFromArray(ZipRangeConverter.convertZipRangeDTOtoList(zipRangeDTO));
+			return new ZipRangeBatchResultDTO(itemId, returnedList, null);
+		} catch (RuntimeException e) {
+			return new ZipRangeBatchResultDTO(itemId, null, e.getMessage());
+		}
+	}
+
+	private void sendResult(ResponseBodyEmitter emitter, ZipRangeBatchResultDTO result, AtomicInteger remainingItems,
+			AtomicBoolean open) {
+		// results complete on several threads, but the emitter must only be written by one at a time
+		synchronized (emitter) {
+			if (result == null || !open.get()) {
+				return;
+			}
+
+			try {
+				emitter.send(result, MediaType.APPLICATION_JSON);
+				emitter.send("\n", MediaType.TEXT_PLAIN);
+			} catch (IOException | IllegalStateException e) {
+				logger.info("Unable to send batch result for item {}, client is gone: {}", result.getItemId(),
+						e.getMessage());
+				open.set(false);
+				emitter.completeWithError(e);
+				return;
+			}
+
+			if (remainingItems.decrementAndGet() == 0) {
+				emitter.complete();
+			}
+		}
+	}
+}
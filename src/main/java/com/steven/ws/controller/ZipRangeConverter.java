@@ -0,0 +1,29 @@
+package com.steven.ws.controller;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import com.steven.ws.dto.ZipCodeRangeDTO;
+import com.steven.ws.dto.ZipRangeDTO;
+
+/**
+ * Conversions between the request formats accepted by the controllers and the formats used by
+ * {@link com.steven.ws.impl.WsCodeChallengeManager}.
+ */
+final class ZipRangeConverter {
+
+	private ZipRangeConverter() {
+	}
+
+	static List<List<String>> convertZipRangeDTOtoList(ZipRangeDTO zipRangeDTO) {
+		return convertZipCodeRangeDTOsToList(zipRangeDTO.getZipCodeRanges());
+	}
+
+	static List<List<String>> convertZipCodeRangeDTOsToList(List<ZipCodeRangeDTO> zipCodeRangeDTOs) {
+		List<List<String>> list = new ArrayList<>();
+		for (ZipCodeRangeDTO rangeDto : zipCodeRangeDTOs) {
+			list.add(rangeDto.getZipRange());
+		}
+		return list;
+	}
+}
@@ -0,0 +1,43 @@
+package com.steven.ws.controller;
+
+import java.util.concurrent.RejectedExecutionException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import com.steven.ws.parser.ZipRangeParseException;
+
+/**
+ * Maps the exceptions shared by every range controller to their response, so malformed bodies, invalid zip codes and
+ * full request lanes are answered the same way whichever endpoint received them.
+ */
+@ControllerAdvice
+public class ZipRangeExceptionHandler {
+
+	private final Logger logger = LoggerFactory.getLogger(ZipRangeExceptionHandler.class);
+
+	@ExceptionHandler(RejectedExecutionException.class)
+	public ResponseEntity<String> handleRejectedExecutionException(RejectedExecutionException exception) {
+		logger.info("Rejected zip code range request: {}", exception.getMessage());
+		return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).header(HttpHeaders.RETRY_AFTER, "1")
+				.body(exception.getMessage());
+	}
+
+	@ExceptionHandler(ZipRangeParseException.class)
+	public ResponseEntity<String> handleParseException(ZipRangeParseException exception) {
+		logger.info("Rejected malformed zip code range input: {}", exception.getMessage());
+		return ResponseEntity.badRequest().body(exception.getMessage());
+	}
+
+	@ExceptionHandler(IllegalArgumentException.class)
+	public ResponseEntity<String> handleIllegalArgumentException(IllegalArgumentException exception) {
+		logger.info("Rejected invalid zip code range input: {}", exception.getMessage());
+		return ResponseEntity.badRequest().body(exception.getMessage());
+	}
+
+}
@@ -0,0 +1,48 @@
+package com.steven.ws.controller;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Routes range requests off the servlet threads onto one of two bounded executors by input size, so a few large
+ * merges cannot hold up the Tomcat pool or the cheap requests queued behind them.
+ *
+ * <pre>
+ * Submitting to a lane whose queue is full throws RejectedExecutionException straight away instead of waiting, which
+ * the controllers turn into 429 Too Many Requests.
+ * </pre>
+ */
+@Component
+class ZipRangeRequestLanes {
+
+	@Value("${ws.async.large-threshold:10000}")
+	private int largeThreshold;
+
+	@Autowired
+	@Qualifier("zipRangeSmallLaneExecutor")
+	private Executor smallLane;
+
+	@Autowired
+	@Qualifier("zipRangeLargeLaneExecutor")
+	private Executor largeLane;
+
+	/**
+	 * @param rangeCount
+	 *            the number of input ranges, which selects the lane
+	 * @param work
+	 *            computes the response
+	 * @return the pending response
+	 * @throws java.util.concurrent.RejectedExecutionException
+	 *             if the lane is full
+	 */
+	<T> CompletableFuture<T> submit(int rangeCount, Supplier<T> work) {
+		return CompletableFuture.supplyAsync(work, rangeCount >= largeThreshold ? largeLane : smallLane);
+	}
+
+}
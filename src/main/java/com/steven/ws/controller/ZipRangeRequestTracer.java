@@ -0,0 +1,152 @@
+package com.steven.ws.controller;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.steven.ws.impl.ZipRangeEngine;
+import com.steven.ws.impl.ZipRangePhaseTrace;
+
+/**
+ * Logs a sample of the range requests instead of every payload. A sampled request is logged at INFO as one line
+ * holding a summary of its inputs and output, its duration and the time spent in each pipeline phase, @see
+ * {@link com.steven.ws.impl.ZipRangePhaseTrace}.
+ *
+ * <pre>
+ * A range list is summarized as its count, first and last range, e.g. 1200 ranges [00501,00544]..[99929,99950], so
+ * the cost of a trace line does not grow with the payload. Requests are told apart by the hashes of the packed input
+ * and output of their merges, which the manager records into the trace from the arrays it already holds, so no String
+ * is hashed. Other values are cut to ws.logging.max-value-length characters.
+ *
+ * Full inputs and outputs of every request are still logged when the logger of this class is set to DEBUG, e.g. with
+ * logging.level.com.steven.ws.controller.ZipRangeRequestTracer=DEBUG.
+ * </pre>
+ */
+@Component
+class ZipRangeRequestTracer {
+
+	private final Logger logger = LoggerFactory.getLogger(ZipRangeRequestTracer.class);
+
+	@Value("${ws.logging.sample-rate:0.01}")
+	private double sampleRate;
+
+	@Value("${ws.logging.max-value-length:200}")
+	private int maxValueLength;
+
+	/**
+	 * Runs the work, tracing it if the request is sampled or full dumps are enabled.
+	 *
+	 * @param operation
+	 *            name of the traced operation
+	 * @param work
+	 *            computes the output
+	 * @param inputs
+	 *            the inputs of the operation, only formatted when the request is traced
+	 * @return the output of the work
+	 */
+	<T> T trace(String operation, Supplier<T> work, Object... inputs) {
+		boolean sampled = sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+		boolean dumped = logger.isDebugEnabled();
+		if (!sampled && !dumped) {
+			return work.get();
+		}
+
+		long start = System.nanoTime();
+		ZipRangePhaseTrace phaseTrace = ZipRangePhaseTrace.start();
+		T output;
+		try {
+			output = work.get();
+		} finally {
+			phaseTrace.stop();
+		}
+		long elapsedNanos = System.nanoTime() - start;
+
+		if (sampled) {
+			StringBuilder summary = new StringBuilder();
+			for (Object input : inputs) {
+				summary.append(summary.length() == 0 ? "" : ", ").append(summarize(input));
+			}
+			logger.info("{} took {} ms, phases {}, merges {}, input {}, output {}", operation,
+					String.format("%.3f", elapsedNanos / 1e6), phaseTrace, phaseTrace.getMergeHashes(), summary,
+					summarize(output));
+		}
+		if (dumped) {
+			StringBuilder dump = new StringBuilder();
+			for (Object input : inputs) {
+				dump.append(dump.length() == 0 ? "" : ", ").append(dump(input));
+			}
+			logger.debug("{} full input {}, full output {}", operation, dump, dump(output));
+		}
+		return output;
+	}
+
+	/**
+	 * @param value
+	 *            a range list, either packed or as strings, or any other value
+	 * @return a summary whose length does not depend on the number of ranges
+	 */
+	String summarize(Object value) {
+		if (value instanceof long[]) {
+			long[] ranges = (long[]) value;
+			if (ranges.length == 0) {
+				return "0 ranges";
+			}
+			return summarize(ranges.length, format(ranges[0]), format(ranges[ranges.length - 1]));
+		}
+		if (value instanceof List) {
+			List<?> list = (List<?>) value;
+			if (list.isEmpty()) {
+				return "0 ranges";
+			}
+			return summarize(list.size(), truncate(String.valueOf(list.get(0))),
+					truncate(String.valueOf(list.get(list.size() - 1))));
+		}
+		if (value instanceof boolean[]) {
+			boolean[] flags = (boolean[]) value;
+			int set = 0;
+			for (boolean flag : flags) {
+				set += flag ? 1 : 0;
+			}
+			return flags.length + " flags, " + set + " set";
+		}
+		return truncate(String.valueOf(value));
+	}
+
+	private static String summarize(int count, String first, String last) {
+		return count + " ranges " + first + ".." + last;
+	}
+
+	private String truncate(String value) {
+		if (value.length() <= maxValueLength) {
+			return value;
+		}
+		return value.substring(0, maxValueLength) + "... (" + value.length() + " chars)";
+	}
+
+	private static String dump(Object value) {
+		if (value instanceof long[]) {
+			long[] ranges = (long[]) value;
+			StringBuilder dump = new StringBuilder(ranges.length * 14 + 2).append('[');
+			for (int i = 0; i < ranges.length; i++) {
+				dump.append(i == 0 ? "" : ", ").append(format(ranges[i]));
+			}
+			return dump.append(']').toString();
+		}
+		if (value instanceof boolean[]) {
+			return Arrays.toString((boolean[]) value);
+		}
+		return String.valueOf(value);
+	}
+
+	private static String format(long range) {
+		return "[" + ZipRangeEngine.formatZipCode(ZipRangeEngine.low(range)) + ","
+				+ ZipRangeEngine.formatZipCode(ZipRangeEngine.high(range)) + "]";
+	}
+
+}
@@ -0,0 +1,118 @@
+package com.steven.ws.controller;
+
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.dto.ZipCodeRestrictionDTO;
+import com.steven.ws.impl.WsCodeChallengeManager;
+import com.steven.ws.impl.ZipRangeEngine;
+import com.steven.ws.impl.ZipRangeRegistry;
+import com.steven.ws.parser.ZipRangeBinaryCodec;
+
+@RestController
+@RequestMapping(path = "/zipRange/sets")
+public class ZipRangeSetController {
+
+	private final Logger logger = LoggerFactory.getLogger(ZipRangeSetController.class);
+
+	@Autowired
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Autowired
+	private ZipRangeRegistry zipRangeRegistry;
+
+	@GetMapping(path = "", produces = "application/json")
+	public ResponseEntity<Set<String>> getRestrictionSetNames() {
+		return ResponseEntity.ok(zipRangeRegistry.getRestrictionSetNames());
+	}
+
+	@GetMapping(path = "/{name}", produces = "application/json")
+	public ResponseEntity<List<List<String>>> getRestrictionSet(
+			@PathVariable(required = true, name = "name") String name) {
+		long[] ranges = zipRangeRegistry.getRestrictionSet(name);
+		if (ranges == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return ResponseEntity.ok(ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@GetMapping(path = "/{name}", produces = ZipRangeBinaryCodec.MEDIA_TYPE_VALUE)
+	public ResponseEntity<PackedZipRangeDTO> getPackedRestrictionSet(
+			@PathVariable(required = true, name = "name") String name) {
+		long[] ranges = zipRangeRegistry.getRestrictionSet(name);
+		if (ranges == null) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return ResponseEntity.ok(new PackedZipRangeDTO(ranges));
+	}
+
+	@PostMapping(path = "/{name}")
+	public ResponseEntity<Void> addRangesToRestrictionSet(@PathVariable(required = true, name = "name") String name,
+			@RequestBody PackedZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.info("Adding {} ranges to restriction set {}", zipRangeDTO.getZipCodeRanges().length, name);
+		zipRangeRegistry.addRanges(name,
+				wsCodeChallengeManager.retrieveMinimumPackedRangeSet(zipRangeDTO.getZipCodeRanges()));
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@PutMapping(path = "/{name}")
+	public ResponseEntity<Void> replaceRestrictionSet(@PathVariable(required = true, name = "name") String name,
+			@RequestBody PackedZipRangeDTO zipRangeDTO) {
+
+		if (zipRangeDTO == null || zipRangeDTO.isEmpty()) {
+			return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+		}
+
+		logger.info("Replacing restriction set {} with {} ranges", name, zipRangeDTO.getZipCodeRanges().length);
+		zipRangeRegistry.replaceRanges(name,
+				wsCodeChallengeManager.retrieveMinimumPackedRangeSet(zipRangeDTO.getZipCodeRanges()));
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@DeleteMapping(path = "/{name}")
+	public ResponseEntity<Void> removeRestrictionSet(@PathVariable(required = true, name = "name") String name) {
+		logger.info("Removing restriction set {}", name);
+		if (!zipRangeRegistry.removeRestrictionSet(name)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+	}
+
+	@GetMapping(path = "/{name}/restricted/{zipCode}", produces = "application/json")
+	public ResponseEntity<ZipCodeRestrictionDTO> getZipCodeRestriction(
+			@PathVariable(required = true, name = "name") String name,
+			@PathVariable(required = true, name = "zipCode") String zipCode) {
+		if (!zipRangeRegistry.containsRestrictionSet(name)) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+
+		boolean restricted = zipRangeRegistry.isZipCodeRestricted(name, wsCodeChallengeManager.parseZipCode(zipCode));
+
+		return ResponseEntity.ok(new ZipCodeRestrictionDTO(zipCode, restricted));
+	}
+}
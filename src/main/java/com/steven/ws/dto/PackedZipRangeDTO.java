@@ -0,0 +1,38 @@
+package com.steven.ws.dto;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.steven.ws.parser.PackedZipRangeDeserializer;
+
+/**
+ * Compact form of {@link com.steven.ws.dto.ZipRangeDTO}. The same JSON shape is streamed straight into packed ranges,
+ * @see {@link com.steven.ws.parser.PackedZipRangeDeserializer}, instead of binding a list of objects per range.
+ */
+@JsonDeserialize(using = PackedZipRangeDeserializer.class)
+public class PackedZipRangeDTO {
+	private long[] zipCodeRanges;
+
+	public PackedZipRangeDTO() {
+	}
+
+	public PackedZipRangeDTO(long[] zipCodeRanges) {
+		this.zipCodeRanges = zipCodeRanges;
+	}
+
+	public long[] getZipCodeRanges() {
+		return zipCodeRanges;
+	}
+
+	public void setZipCodeRanges(long[] zipCodeRanges) {
+		this.zipCodeRanges = zipCodeRanges;
+	}
+
+	public boolean isEmpty() {
+		return zipCodeRanges == null || zipCodeRanges.length == 0;
+	}
+
+	@Override
+	public String toString() {
+		return "PackedZipRangeDTO [ranges=" + (zipCodeRanges == null ? 0 : zipCodeRanges.length) + "]";
+	}
+
+}
@@ -0,0 +1,39 @@
+package com.steven.ws.dto;
+
+import java.util.List;
+
+public class RestrictedItemsDTO {
+	private String zipCode;
+
+	private List<String> itemIds;
+
+	public RestrictedItemsDTO() {
+	}
+
+	public RestrictedItemsDTO(String zipCode, List<String> itemIds) {
+		this.zipCode = zipCode;
+		this.itemIds = itemIds;
+	}
+
+	public String getZipCode() {
+		return zipCode;
+	}
+
+	public void setZipCode(String zipCode) {
+		this.zipCode = zipCode;
+	}
+
+	public List<String> getItemIds() {
+		return itemIds;
+	}
+
+	public void setItemIds(List<String> itemIds) {
+		this.itemIds = itemIds;
+	}
+
+	@Override
+	public String toString() {
+		return "RestrictedItemsDTO [zipCode=" + zipCode + ", itemIds=" + itemIds + "]";
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.steven.ws.dto;
+
+import java.util.List;
+
+public class ZipCodeCheckDTO {
+	private List<ZipCodeRangeDTO> zipCodeRanges;
+
+	private List<String> zipCodes;
+
+	public List<ZipCodeRangeDTO> getZipCodeRanges() {
+		return zipCodeRanges;
+	}
+
+	public void setZipCodeRanges(List<ZipCodeRangeDTO> zipCodeRanges) {
+		this.zipCodeRanges = zipCodeRanges;
+	}
+
+	public List<String> getZipCodes() {
+		return zipCodes;
+	}
+
+	public void setZipCodes(List<String> zipCodes) {
+		this.zipCodes = zipCodes;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipCodeCheckDTO [zipCodeRanges=" + zipCodeRanges + ", zipCodes=" + zipCodes + "]";
+	}
+
+}
@@ -0,0 +1,36 @@
+package com.steven.ws.dto;
+
+public class ZipCodeRestrictionDTO {
+	private String zipCode;
+
+	private boolean restricted;
+
+	public ZipCodeRestrictionDTO() {
+	}
+
+	public ZipCodeRestrictionDTO(String zipCode, boolean restricted) {
+		this.zipCode = zipCode;
+		this.restricted = restricted;
+	}
+
+	public String getZipCode() {
+		return zipCode;
+	}
+
+	public void setZipCode(String zipCode) {
+		this.zipCode = zipCode;
+	}
+
+	public boolean isRestricted() {
+		return restricted;
+	}
+
+	public void setRestricted(boolean restricted) {
+		this.restricted = restricted;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipCodeRestrictionDTO [zipCode=" + zipCode + ", restricted=" + restricted + "]";
+	}
+}
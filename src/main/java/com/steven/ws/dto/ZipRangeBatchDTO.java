@@ -0,0 +1,21 @@
+package com.steven.ws.dto;
+
+import java.util.Map;
+
+public class ZipRangeBatchDTO {
+	private Map<String, ZipRangeDTO> items;
+
+	public Map<String, ZipRangeDTO> getItems() {
+		return items;
+	}
+
+	public void setItems(Map<String, ZipRangeDTO> items) {
+		this.items = items;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipRangeBatchDTO [items=" + items + "]";
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.steven.ws.dto;
+
+import java.util.List;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ZipRangeBatchResultDTO {
+	private String itemId;
+
+	private List<List<String>> zipCodeRanges;
+
+	private String error;
+
+	public ZipRangeBatchResultDTO() {
+	}
+
+	public ZipRangeBatchResultDTO(String itemId, List<List<String>> zipCodeRanges, String error) {
+		this.itemId = itemId;
+		this.zipCodeRanges = zipCodeRanges;
+		this.error = error;
+	}
+
+	public String getItemId() {
+		return itemId;
+	}
+
+	public void setItemId(String itemId) {
+		this.itemId = itemId;
+	}
+
+	public List<List<String>> getZipCodeRanges() {
+		return zipCodeRanges;
+	}
+
+	public void setZipCodeRanges(List<List<String>> zipCodeRanges) {
+		this.zipCodeRanges = zipCodeRanges;
+	}
+
+	public String getError() {
+		return error;
+	}
+
+	public void setError(String error) {
+		this.error = error;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipRangeBatchResultDTO [itemId=" + itemId + ", zipCodeRanges=" + zipCodeRanges + ", error=" + error
+				+ "]";
+	}
+}
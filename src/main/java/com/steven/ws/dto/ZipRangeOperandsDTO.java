@@ -0,0 +1,31 @@
+package com.steven.ws.dto;
+
+import java.util.List;
+
+public class ZipRangeOperandsDTO {
+	private List<ZipCodeRangeDTO> left;
+
+	private List<ZipCodeRangeDTO> right;
+
+	public List<ZipCodeRangeDTO> getLeft() {
+		return left;
+	}
+
+	public void setLeft(List<ZipCodeRangeDTO> left) {
+		this.left = left;
+	}
+
+	public List<ZipCodeRangeDTO> getRight() {
+		return right;
+	}
+
+	public void setRight(List<ZipCodeRangeDTO> right) {
+		this.right = right;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipRangeOperandsDTO [left=" + left + ", right=" + right + "]";
+	}
+
+}
@@ -0,0 +1,21 @@
+package com.steven.ws.dto;
+
+import java.util.List;
+
+public class ZipRangeSourcesDTO {
+	private List<ZipRangeDTO> sources;
+
+	public List<ZipRangeDTO> getSources() {
+		return sources;
+	}
+
+	public void setSources(List<ZipRangeDTO> sources) {
+		this.sources = sources;
+	}
+
+	@Override
+	public String toString() {
+		return "ZipRangeSourcesDTO [sources=" + sources + "]";
+	}
+
+}
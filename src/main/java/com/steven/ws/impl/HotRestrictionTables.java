@@ -0,0 +1,129 @@
+package com.steven.ws.impl;
+
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Named restriction sets compiled into {@link com.steven.ws.impl.ZipCodeBitTable}s, for the most queried sets where
+ * every lookup should be a single array read.
+ *
+ * <pre>
+ * Each set keeps its merged ranges next to its table. The table only answers lookups, the ranges are what the set
+ * returns, so a hot set is read back with the same ranges as a set of the {@link com.steven.ws.impl.ZipRangeRegistry}
+ * and ranges next to each other are not joined as they would be by the table's bits.
+ *
+ * Sets are immutable and published as the values of a ConcurrentHashMap, whose reads never lock. Every update goes
+ * through the map itself: a new set is put in place of the old one, and ranges are added by copying the current set
+ * inside the map's compute for the name, so updates and removals of the same set are applied one at a time and none
+ * is lost. Readers see either the old or the new set, never one half updated.
+ *
+ * Tables are held in memory only and are not part of the snapshot, so they must be published again after a restart.
+ * </pre>
+ */
+@Component
+public class HotRestrictionTables {
+
+	private final ConcurrentMap<String, HotRestrictionSet> restrictionSets = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the names of all hot restriction sets, in alphabetical order
+	 */
+	public Set<String> getTableNames() {
+		return new TreeSet<>(restrictionSets.keySet());
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return the current table of the set, or null if no set is registered with the name
+	 */
+	public ZipCodeBitTable getTable(String name) {
+		HotRestrictionSet restrictionSet = restrictionSets.get(name);
+		return restrictionSet == null ? null : restrictionSet.table;
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return the merged packed ranges of the set, or null if no set is registered with the name
+	 */
+	public long[] getRanges(String name) {
+		HotRestrictionSet restrictionSet = restrictionSets.get(name);
+		return restrictionSet == null ? null : restrictionSet.mergedRanges.clone();
+	}
+
+	/**
+	 * Checks if a zip code is restricted by a hot set, in O(1).
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code is in the set, false if it is not or no set is registered with the name
+	 */
+	public boolean isZipCodeRestricted(String name, int zipCode) {
+		HotRestrictionSet restrictionSet = restrictionSets.get(name);
+		return restrictionSet != null && restrictionSet.table.contains(zipCode);
+	}
+
+	/**
+	 * Compiles merged ranges into a table off to the side and publishes them as the content of a set, replacing the
+	 * previous one.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param mergedRanges
+	 *            the merged packed ranges of the set, @see {@link com.steven.ws.impl.ZipRangeEngine}; the array is
+	 *            retained and must not be modified afterwards
+	 */
+	public void publish(String name, long[] mergedRanges) {
+		restrictionSets.put(name,
+				new HotRestrictionSet(mergedRanges, ZipCodeBitTable.fromRanges(mergedRanges, mergedRanges.length)));
+	}
+
+	/**
+	 * Adds ranges to a set, creating it if it is not registered yet, by swapping in a copy of its table holding the
+	 * ranges and the union of its merged ranges with them.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param mergedRanges
+	 *            the merged packed ranges to add, @see {@link com.steven.ws.impl.ZipRangeEngine}
+	 */
+	public void addRanges(String name, long[] mergedRanges) {
+		restrictionSets.compute(name, (key, restrictionSet) -> restrictionSet == null
+				? new HotRestrictionSet(mergedRanges.clone(),
+						ZipCodeBitTable.fromRanges(mergedRanges, mergedRanges.length))
+				: new HotRestrictionSet(ZipRangeEngine.union(restrictionSet.mergedRanges, mergedRanges),
+						restrictionSet.table.withRanges(mergedRanges, mergedRanges.length)));
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return true if a set was registered with the name and removed, otherwise false
+	 */
+	public boolean removeTable(String name) {
+		return restrictionSets.remove(name) != null;
+	}
+
+	/**
+	 * Merged ranges of a set with the table compiled from them.
+	 */
+	private static final class HotRestrictionSet {
+
+		private final long[] mergedRanges;
+
+		private final ZipCodeBitTable table;
+
+		HotRestrictionSet(long[] mergedRanges, ZipCodeBitTable table) {
+			this.mergedRanges = mergedRanges;
+			this.table = table;
+		}
+	}
+
+}
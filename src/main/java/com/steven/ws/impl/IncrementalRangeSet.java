@@ -0,0 +1,171 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Ordered interval map of merged zip code ranges, keyed by lower bound. Ranges are merged as they are added, in
+ * O(log n + k) where k is the number of existing ranges the new range overlaps, without touching the rest of the set.
+ * Overlapping ranges are merged the same way as {@link com.steven.ws.impl.ZipRangeEngine#sweep(long[], int)}; ranges
+ * that only sit next to each other are kept apart.
+ *
+ * <pre>
+ * The backing map decides the threading model:
+ * 	- a TreeMap (the default) for single threaded use
+ * 	- a ConcurrentSkipListMap to allow lock free reads while a single writer at a time applies updates
+ *
+ * A set can start from an immutable {@link com.steven.ws.impl.ZipRangeIndex}, e.g. one restored from a snapshot,
+ * which answers reads as it is. Its ranges are only copied into the map by the first update.
+ * </pre>
+ */
+public class IncrementalRangeSet {
+
+	private final NavigableMap<Integer, Integer> ranges;
+
+	/**
+	 * Ranges the set started from, answering reads until the first update has copied them into the map.
+	 */
+	private volatile ZipRangeIndex initialRanges;
+
+	public IncrementalRangeSet() {
+		this(new TreeMap<>());
+	}
+
+	/**
+	 * @param ranges
+	 *            the empty map used to hold the ranges, keyed by lower bound with the upper bound as value
+	 */
+	public IncrementalRangeSet(NavigableMap<Integer, Integer> ranges) {
+		this.ranges = ranges;
+	}
+
+	/**
+	 * @param ranges
+	 *            the empty map used to hold the ranges once the set is first updated
+	 * @param initialRanges
+	 *            the ranges the set starts with, read in place until then
+	 */
+	public IncrementalRangeSet(NavigableMap<Integer, Integer> ranges, ZipRangeIndex initialRanges) {
+		this.ranges = ranges;
+		this.initialRanges = initialRanges;
+	}
+
+	/**
+	 * Adds a range to the set, merging it with any ranges it overlaps.
+	 *
+	 * @param first
+	 *            the first bound of the range
+	 * @param second
+	 *            the second bound of the range
+	 */
+	public void add(int first, int second) {
+		copyInitialRanges();
+		int low = Math.min(first, second);
+		int high = Math.max(first, second);
+
+		Map.Entry<Integer, Integer> floor = ranges.floorEntry(low);
+		if (floor != null && floor.getValue() >= low) {
+			if (floor.getValue() >= high) {
+				// already covered by an existing range
+				return;
+			}
+			low = floor.getKey();
+		}
+
+		NavigableMap<Integer, Integer> absorbed = ranges.subMap(low, false, high, true);
+		int mergedHigh = high;
+		for (Integer absorbedHigh : absorbed.values()) {
+			mergedHigh = Math.max(mergedHigh, absorbedHigh);
+		}
+
+		// publish the merged range before dropping the ranges it absorbs, so concurrent readers never lose coverage
+		ranges.put(low, mergedHigh);
+		absorbed.clear();
+	}
+
+	/**
+	 * Adds every packed range to the set, @see {@link com.steven.ws.impl.ZipRangeEngine}
+	 *
+	 * @param packedRanges
+	 *            the packed ranges to add
+	 * @param length
+	 *            the number of ranges in the array to add
+	 */
+	public void addAll(long[] packedRanges, int length) {
+		for (int i = 0; i < length; i++) {
+			add(ZipRangeEngine.low(packedRanges[i]), ZipRangeEngine.high(packedRanges[i]));
+		}
+	}
+
+	/**
+	 * Checks if a zip code falls inside any range of the set, in O(log n).
+	 *
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code is inside one of the ranges, otherwise false
+	 */
+	public boolean contains(int zipCode) {
+		ZipRangeIndex initial = initialRanges;
+		if (initial != null) {
+			return initial.contains(zipCode);
+		}
+		Map.Entry<Integer, Integer> floor = ranges.floorEntry(zipCode);
+		return floor != null && floor.getValue() >= zipCode;
+	}
+
+	/**
+	 * @return true if the set holds no ranges
+	 */
+	public boolean isEmpty() {
+		ZipRangeIndex initial = initialRanges;
+		return initial != null ? initial.size() == 0 : ranges.isEmpty();
+	}
+
+	/**
+	 * Returns the merged ranges in order. Ranges that are still being merged by a concurrent writer are folded
+	 * together, so the result never contains overlapping ranges.
+	 *
+	 * @return the merged packed ranges, sorted by lower bound
+	 */
+	public long[] toPackedRanges() {
+		ZipRangeIndex initial = initialRanges;
+		if (initial != null) {
+			return initial.toPackedRanges();
+		}
+		long[] packedRanges = new long[16];
+		int count = 0;
+		for (Map.Entry<Integer, Integer> entry : ranges.entrySet()) {
+			int low = entry.getKey();
+			int high = entry.getValue();
+			if (count > 0 && low <= ZipRangeEngine.high(packedRanges[count - 1])) {
+				int previousLow = ZipRangeEngine.low(packedRanges[count - 1]);
+				int previousHigh = ZipRangeEngine.high(packedRanges[count - 1]);
+				packedRanges[count - 1] = ZipRangeEngine.pack(previousLow, Math.max(previousHigh, high));
+				continue;
+			}
+			if (count == packedRanges.length) {
+				packedRanges = Arrays.copyOf(packedRanges, count * 2);
+			}
+			packedRanges[count++] = ZipRangeEngine.pack(low, high);
+		}
+		return Arrays.copyOf(packedRanges, count);
+	}
+
+	/**
+	 * Copies the initial ranges into the map before its first update. They are sorted, so each one is appended at the
+	 * end of the map. Reads keep using the initial ranges until the copy is complete.
+	 */
+	private void copyInitialRanges() {
+		ZipRangeIndex initial = initialRanges;
+		if (initial == null) {
+			return;
+		}
+		for (long range : initial.toPackedRanges()) {
+			ranges.put(ZipRangeEngine.low(range), ZipRangeEngine.high(range));
+		}
+		initialRanges = null;
+	}
+
+}
@@ -0,0 +1,238 @@
+package com.steven.ws.impl;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Inverted index answering which items are restricted for a zip code without evaluating the ranges of every item.
+ * Each item keeps its merged ranges, and each of the 1000 buckets of zip codes sharing their first 3 digits keeps two
+ * bitmaps of item ordinals.
+ *
+ * <pre>
+ * 	- covered: items whose ranges hold every zip code of the bucket, restricted for any zip code in it
+ * 	- partial: items whose ranges hold only some zip codes of the bucket, checked with a binary search of their ranges
+ *
+ * A lookup reads one bucket, so its cost depends on the number of items restricted around the zip code and not on the
+ * number of items indexed. Replacing or removing an item only updates the buckets its old and new ranges touch.
+ *
+ * Lookups run concurrently and updates are applied one at a time while no lookup is running. Items are held in memory
+ * only and are not part of the snapshot, so they must be indexed again after a restart.
+ * </pre>
+ */
+@Component
+public class ItemRestrictionIndex {
+
+	private static final int BUCKET_SIZE = 100;
+
+	private static final int BUCKET_COUNT = ZipRangeEngine.ZIP_CODE_UNIVERSE / BUCKET_SIZE;
+
+	private final BitSet[] coveredItems = new BitSet[BUCKET_COUNT];
+
+	private final BitSet[] partialItems = new BitSet[BUCKET_COUNT];
+
+	private final Map<String, Integer> itemOrdinals = new HashMap<>();
+
+	private final List<String> itemIds = new ArrayList<>();
+
+	private final List<ZipRangeIndex> itemRanges = new ArrayList<>();
+
+	/**
+	 * Ordinals of removed items, reused so the bitmaps do not grow with every item ever indexed.
+	 */
+	private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	public ItemRestrictionIndex() {
+		for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+			coveredItems[bucket] = new BitSet();
+			partialItems[bucket] = new BitSet();
+		}
+	}
+
+	/**
+	 * @return the number of indexed items
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return itemOrdinals.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param itemId
+	 *            the id of the item
+	 * @return the merged packed ranges of the item, or null if no item is indexed with the id
+	 */
+	public long[] getItemRanges(String itemId) {
+		lock.readLock().lock();
+		try {
+			Integer ordinal = itemOrdinals.get(itemId);
+			return ordinal == null ? null : itemRanges.get(ordinal).toPackedRanges();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return the ids of the items restricted for the zip code, in no particular order
+	 */
+	public List<String> getRestrictedItems(int zipCode) {
+		List<String> restrictedItems = new ArrayList<>();
+		if (zipCode < 0 || zipCode >= ZipRangeEngine.ZIP_CODE_UNIVERSE) {
+			return restrictedItems;
+		}
+
+		int bucket = zipCode / BUCKET_SIZE;
+		lock.readLock().lock();
+		try {
+			BitSet covered = coveredItems[bucket];
+			for (int ordinal = covered.nextSetBit(0); ordinal >= 0; ordinal = covered.nextSetBit(ordinal + 1)) {
+				restrictedItems.add(itemIds.get(ordinal));
+			}
+			BitSet partial = partialItems[bucket];
+			for (int ordinal = partial.nextSetBit(0); ordinal >= 0; ordinal = partial.nextSetBit(ordinal + 1)) {
+				if (itemRanges.get(ordinal).contains(zipCode)) {
+					restrictedItems.add(itemIds.get(ordinal));
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		return restrictedItems;
+	}
+
+	/**
+	 * Indexes the ranges of an item, replacing the ranges it was indexed with before.
+	 *
+	 * @param itemId
+	 *            the id of the item
+	 * @param mergedRanges
+	 *            the merged packed ranges of the item, sorted by lower bound and not overlapping, @see
+	 *            {@link com.steven.ws.impl.ZipRangeEngine}
+	 */
+	public void putItem(String itemId, long[] mergedRanges) {
+		ZipRangeIndex ranges = ZipRangeIndex.fromMergedRanges(mergedRanges, mergedRanges.length);
+		lock.writeLock().lock();
+		try {
+			indexItem(itemId, ranges, mergedRanges);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Indexes the ranges of several items at once, replacing the ranges of items that were already indexed. Lookups
+	 * see either none or all of the items.
+	 *
+	 * @param items
+	 *            the merged packed ranges of each item, by item id, @see
+	 *            {@link com.steven.ws.impl.ItemRestrictionIndex#putItem(String, long[])}
+	 */
+	public void putItems(Map<String, long[]> items) {
+		Map<String, ZipRangeIndex> itemIndexes = new HashMap<>();
+		for (Map.Entry<String, long[]> item : items.entrySet()) {
+			itemIndexes.put(item.getKey(), ZipRangeIndex.fromMergedRanges(item.getValue(), item.getValue().length));
+		}
+		lock.writeLock().lock();
+		try {
+			for (Map.Entry<String, long[]> item : items.entrySet()) {
+				indexItem(item.getKey(), itemIndexes.get(item.getKey()), item.getValue());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * @param itemId
+	 *            the id of the item
+	 * @return true if an item was indexed with the id and removed, otherwise false
+	 */
+	public boolean removeItem(String itemId) {
+		lock.writeLock().lock();
+		try {
+			Integer ordinal = itemOrdinals.remove(itemId);
+			if (ordinal == null) {
+				return false;
+			}
+			updateBuckets(ordinal, itemRanges.get(ordinal).toPackedRanges(), false);
+			itemIds.set(ordinal, null);
+			itemRanges.set(ordinal, null);
+			freeOrdinals.push(ordinal);
+			return true;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void indexItem(String itemId, ZipRangeIndex ranges, long[] mergedRanges) {
+		Integer ordinal = itemOrdinals.get(itemId);
+		if (ordinal == null) {
+			ordinal = freeOrdinals.isEmpty() ? itemIds.size() : freeOrdinals.pop();
+			if (ordinal == itemIds.size()) {
+				itemIds.add(itemId);
+				itemRanges.add(ranges);
+			} else {
+				itemIds.set(ordinal, itemId);
+			}
+			itemOrdinals.put(itemId, ordinal);
+		} else {
+			updateBuckets(ordinal, itemRanges.get(ordinal).toPackedRanges(), false);
+		}
+		itemRanges.set(ordinal, ranges);
+		updateBuckets(ordinal, mergedRanges, true);
+	}
+
+	/**
+	 * Sets or clears the item in the buckets touched by its ranges, walking only those buckets. A bucket is covered
+	 * when the merged ranges hold all of its zip codes, which as they do not overlap means their lengths inside the
+	 * bucket add up to the bucket size. The ranges are sorted, so the buckets they touch come in order and each one is
+	 * complete once a range reaches past it.
+	 */
+	private void updateBuckets(int ordinal, long[] mergedRanges, boolean value) {
+		int currentBucket = -1;
+		int currentCount = 0;
+		for (long range : mergedRanges) {
+			int low = ZipRangeEngine.low(range);
+			int high = ZipRangeEngine.high(range);
+			for (int bucket = low / BUCKET_SIZE; bucket <= high / BUCKET_SIZE; bucket++) {
+				if (bucket != currentBucket) {
+					updateBucket(ordinal, currentBucket, currentCount, value);
+					currentBucket = bucket;
+					currentCount = 0;
+				}
+				int bucketLow = Math.max(low, bucket * BUCKET_SIZE);
+				int bucketHigh = Math.min(high, bucket * BUCKET_SIZE + BUCKET_SIZE - 1);
+				currentCount += bucketHigh - bucketLow + 1;
+			}
+		}
+		updateBucket(ordinal, currentBucket, currentCount, value);
+	}
+
+	private void updateBucket(int ordinal, int bucket, int coveredCount, boolean value) {
+		if (bucket < 0) {
+			return;
+		}
+		if (coveredCount == BUCKET_SIZE) {
+			coveredItems[bucket].set(ordinal, value);
+		} else {
+			partialItems[bucket].set(ordinal, value);
+		}
+	}
+
+}
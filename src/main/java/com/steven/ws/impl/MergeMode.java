@@ -0,0 +1,28 @@
+package com.steven.ws.impl;
+
+/**
+ * Strategies available to {@link com.steven.ws.impl.WsCodeChallengeManager} for merging zip code ranges.
+ */
+public enum MergeMode {
+
+	/**
+	 * Sorts the packed ranges and merges them with a single linear sweep. Overlapping ranges are merged, ranges that
+	 * only sit next to each other are kept apart. This is the default.
+	 */
+	SORT_SWEEP,
+
+	/**
+	 * Splits the ranges into chunks that are sorted and swept in parallel on a fork/join pool, then stitches the chunk
+	 * results together. Produces the same result as SORT_SWEEP, which switches to this mode on its own for inputs above
+	 * the configured parallel threshold.
+	 */
+	PARALLEL,
+
+	/**
+	 * Marks every range in a fixed 100,000 bit set covering zip codes 00000 to 99999 and reads the merged runs back.
+	 * No sort is performed and memory stays fixed regardless of input size. Produces the same result as SORT_SWEEP,
+	 * ranges that only sit next to each other are kept apart.
+	 */
+	BITSET
+
+}
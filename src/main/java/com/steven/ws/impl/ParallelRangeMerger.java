@@ -0,0 +1,75 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Merges large sets of packed ranges on a {@link java.util.concurrent.ForkJoinPool}. The input is split into chunks,
+ * each chunk is sorted and swept independently, and neighbouring results are stitched back together with
+ * {@link com.steven.ws.impl.ZipRangeEngine#union(long[], long[])} as the tasks join.
+ */
+final class ParallelRangeMerger {
+
+	/**
+	 * Smallest chunk worth handing to its own task; below this the fork and stitch overhead outweighs the sort.
+	 */
+	private static final int MINIMUM_CHUNK_SIZE = 8192;
+
+	/**
+	 * Number of chunks created per worker thread, so a slow chunk does not leave the other workers idle.
+	 */
+	private static final int CHUNKS_PER_WORKER = 4;
+
+	private ParallelRangeMerger() {
+	}
+
+	/**
+	 * @param pool
+	 *            the pool running the chunk merges
+	 * @param ranges
+	 *            the packed ranges to merge, left unmodified
+	 * @return the merged packed ranges, sorted by lower bound
+	 */
+	static long[] merge(ForkJoinPool pool, long[] ranges) {
+		int chunkSize = Math.max(MINIMUM_CHUNK_SIZE,
+				ranges.length / (pool.getParallelism() * CHUNKS_PER_WORKER) + 1);
+		return pool.invoke(new MergeTask(ranges, 0, ranges.length, chunkSize));
+	}
+
+	private static final class MergeTask extends RecursiveTask<long[]> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final long[] ranges;
+
+		private final int from;
+
+		private final int to;
+
+		private final int chunkSize;
+
+		MergeTask(long[] ranges, int from, int to, int chunkSize) {
+			this.ranges = ranges;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+
+		@Override
+		protected long[] compute() {
+			if (to - from <= chunkSize) {
+				long[] chunk = Arrays.copyOfRange(ranges, from, to);
+				int mergedCount = ZipRangeEngine.merge(chunk, chunk.length);
+				return Arrays.copyOf(chunk, mergedCount);
+			}
+
+			int middle = (from + to) >>> 1;
+			MergeTask left = new MergeTask(ranges, from, middle, chunkSize);
+			left.fork();
+			long[] rightResult = new MergeTask(ranges, middle, to, chunkSize).compute();
+			return ZipRangeEngine.union(left.join(), rightResult);
+		}
+	}
+
+}
@@ -0,0 +1,60 @@
+package com.steven.ws.impl;
+
+/**
+ * Operations available to {@link com.steven.ws.impl.WsCodeChallengeManager} for combining two sets of zip code
+ * ranges. Each one is a single linear pass over both merged sets, without expanding ranges into zip codes, or over
+ * the chunks of both {@link com.steven.ws.impl.ZipPlus4Bitmap}s for ZIP+4 codes.
+ */
+public enum SetOperation {
+
+	/**
+	 * Zip codes restricted by either set, @see {@link com.steven.ws.impl.ZipRangeEngine#union(long[], long[])}
+	 */
+	UNION {
+		@Override
+		long[] apply(long[] left, long[] right) {
+			return ZipRangeEngine.union(left, right);
+		}
+
+		@Override
+		ZipPlus4Bitmap apply(ZipPlus4Bitmap left, ZipPlus4Bitmap right) {
+			return left.union(right);
+		}
+	},
+
+	/**
+	 * Zip codes restricted by both sets, @see {@link com.steven.ws.impl.ZipRangeEngine#intersection(long[], long[])}
+	 */
+	INTERSECTION {
+		@Override
+		long[] apply(long[] left, long[] right) {
+			return ZipRangeEngine.intersection(left, right);
+		}
+
+		@Override
+		ZipPlus4Bitmap apply(ZipPlus4Bitmap left, ZipPlus4Bitmap right) {
+			return left.intersection(right);
+		}
+	},
+
+	/**
+	 * Zip codes restricted by the left set but not by the right set, @see
+	 * {@link com.steven.ws.impl.ZipRangeEngine#difference(long[], long[])}
+	 */
+	DIFFERENCE {
+		@Override
+		long[] apply(long[] left, long[] right) {
+			return ZipRangeEngine.difference(left, right);
+		}
+
+		@Override
+		ZipPlus4Bitmap apply(ZipPlus4Bitmap left, ZipPlus4Bitmap right) {
+			return left.difference(right);
+		}
+	};
+
+	abstract long[] apply(long[] left, long[] right);
+
+	abstract ZipPlus4Bitmap apply(ZipPlus4Bitmap left, ZipPlus4Bitmap right);
+
+}
@@ -1,19 +1,45 @@
 package com.steven.ws.impl;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.concurrent.ForkJoinPool;
 
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
 import com.steven.ws.bo.ZipCodeRangeBO;
 import com.steven.ws.bo.ZipRangeBO;
+import com.steven.ws.impl.ZipRangeMetrics.Phase;
+import com.steven.ws.parser.ZipRangeStreamReader;
+
+import io.micrometer.core.instrument.Metrics;
 
 @Component
 public class WsCodeChallengeManager {
 
-	private static final String ZIP_CODE_FORMAT = "[0-9]{5}";
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 100000;
+
+	/**
+	 * Inputs with at least this many ranges are merged in parallel when using {@link MergeMode#SORT_SWEEP}.
+	 */
+	@Value("${ws.merge.parallel-threshold:" + DEFAULT_PARALLEL_THRESHOLD + "}")
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+
+	@Autowired(required = false)
+	@Qualifier("zipRangeMergePool")
+	private ForkJoinPool mergePool = ForkJoinPool.commonPool();
+
+	@Autowired(required = false)
+	private ZipRangeResultCache resultCache;
+
+	@Autowired(required = false)
+	private ZipRangeMetrics metrics = new ZipRangeMetrics(Metrics.globalRegistry);
 
 	/**
 	 * 
@@ -25,7 +51,7 @@ public class WsCodeChallengeManager {
 	 * Takes a String in the format of a multidimensional array containing zip codes in the following format:
 	 * 	- [94133,94133] [94200,94299] [94600,94699]
 	 *  - Note that arrays are space delimited.
-	 *  - ZipCode value formats are evaluated with @see ZIP_CODE_FORMAT
+	 *  - ZipCode values are cleaned and validated with @see ZipCodeNormalizer
 	 * 
 	 * Example input: "[94133,94133] [94200,94299] [94600,94699]"
 	 * 
@@ -37,232 +63,639 @@ public class WsCodeChallengeManager {
 	 * @return the minimum set of ranges determined from the input ranges
 	 */
 	public List<List<String>> retrieveMinimumRangeSetFromArray(List<List<String>> zipCodeRanges) {
-		if (CollectionUtils.isEmpty(zipCodeRanges)) {
+		return retrieveMinimumRangeSetFromArray(zipCodeRanges, MergeMode.SORT_SWEEP);
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}, merging the
+	 * ranges with the provided {@link com.steven.ws.impl.MergeMode}.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the minimum set of ranges determined from the input ranges
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromArray(List<List<String>> zipCodeRanges,
+			MergeMode mergeMode) {
+		long[] ranges = retrieveMergedRanges(zipCodeRanges, mergeMode);
+
+		long formatStart = System.nanoTime();
+		List<List<String>> returnList = ZipRangeEngine.toStringRanges(ranges, ranges.length);
+		metrics.recordPhase(Phase.FORMAT, formatStart);
+
+		return returnList;
+	}
+
+	/**
+	 * Helper method to operate on BO object instead of directly on a list in @see
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}
+	 * 
+	 * @param zipRangeBo
+	 *            the input BO object containing the zip code ranges
+	 * @return the minimum set of ranges determined from the input ranges
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromArray(ZipRangeBO zipRangeBo) {
+		return retrieveMinimumRangeSetFromArray(zipRangeBo, MergeMode.SORT_SWEEP);
+	}
+
+	/**
+	 * Helper method to operate on BO object instead of directly on a list in @see
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List, MergeMode)}
+	 * 
+	 * @param zipRangeBo
+	 *            the input BO object containing the zip code ranges
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges
+	 * @return the minimum set of ranges determined from the input ranges
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromArray(ZipRangeBO zipRangeBo, MergeMode mergeMode) {
+		List<List<String>> list = new ArrayList<>();
+		for (ZipCodeRangeBO rangeBound : zipRangeBo.getZipCodeRanges()) {
+			list.add(rangeBound.getZipRange());
+		}
+		return retrieveMinimumRangeSetFromArray(list, mergeMode);
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List, MergeMode)} for
+	 * ranges that were already parsed into packed primitives, e.g. by
+	 * {@link com.steven.ws.parser.PipeDelimitedRangeParser}, skipping the String cleaning and validation.
+	 * 
+	 * @param packedRanges
+	 *            the validated and oriented packed ranges in input order, @see
+	 *            {@link com.steven.ws.impl.ZipRangeEngine}, not modified; the array may be retained and must not be
+	 *            modified afterwards
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the minimum set of ranges determined from the input ranges
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromPackedRanges(long[] packedRanges, MergeMode mergeMode) {
+		validatePackedRanges(packedRanges);
+		long[] ranges = mergeNormalizedRanges(packedRanges, mergeMode);
+
+		long formatStart = System.nanoTime();
+		List<List<String>> returnList = ZipRangeEngine.toStringRanges(ranges, ranges.length);
+		metrics.recordPhase(Phase.FORMAT, formatStart);
+
+		return returnList;
+	}
+
+	/**
+	 * Streaming version of {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}.
+	 * Ranges are read token by token and merged as they arrive, so memory depends on the number of merged ranges and
+	 * not on the size of the input.
+	 * 
+	 * <pre>
+	 * Accepts the bracket text format or NDJSON with one range per line, @see
+	 * {@link com.steven.ws.parser.ZipRangeStreamReader}
+	 * 
+	 * Example input: "[94133,94133] [94200,94299] [94600,94699]"
+	 * </pre>
+	 * 
+	 * @param zipCodeRanges
+	 *            the reader providing the input zip code ranges
+	 * @return the minimum set of ranges determined from the input ranges
+	 * @throws IOException
+	 *             if reading the input fails
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromStream(Reader zipCodeRanges) throws IOException {
+		IncrementalRangeSet rangeSet = new IncrementalRangeSet();
+		long rangeCount = ZipRangeStreamReader.read(zipCodeRanges, rangeSet::add);
+		if (rangeCount == 0) {
 			throw new IllegalArgumentException(
 					"The zipCodeRanges provided is null or empty. Check your parameters and try again.");
 		}
 
-		attemptToCleanData(zipCodeRanges);
+		long[] ranges = rangeSet.toPackedRanges();
+		return ZipRangeEngine.toStringRanges(ranges, ranges.length);
+	}
 
-		// validate that list contains expected format for logic to succeed
-		validateListData(zipCodeRanges);
+	/**
+	 * Given several sources of zip code ranges that are each already sorted by their lower value, provides the minimum
+	 * set of ranges representing the restrictions of all sources combined. Sources are merged with a k-way merge
+	 * instead of being concatenated and sorted again, @see
+	 * {@link com.steven.ws.impl.ZipRangeEngine#kWayMerge(long[][])}
+	 * 
+	 * <pre>
+	 * Each source uses the same format as
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}. A range with the higher
+	 * value first is oriented before the order is checked.
+	 * 
+	 * Example input: ["[94133,94133] [94600,94699]", "[94200,94299] [94226,94399]"]
+	 * </pre>
+	 * 
+	 * @param sortedSources
+	 *            the zip code ranges of each source, each sorted by lower value
+	 * @return the minimum set of ranges determined from all sources
+	 */
+	public List<List<String>> retrieveMinimumRangeSetFromSortedSources(List<List<List<String>>> sortedSources) {
+		if (CollectionUtils.isEmpty(sortedSources)) {
+			throw new IllegalArgumentException(
+					"The sources provided are null or empty. Check your parameters and try again.");
+		}
 
-		// sort lists by lower range value in each sub list
-		sortListByFirstEntry(zipCodeRanges);
+		long[][] packedSources = new long[sortedSources.size()][];
+		for (int source = 0; source < packedSources.length; source++) {
+			packedSources[source] = normalizeToPackedRanges(sortedSources.get(source));
+			validateSortedByLowerBound(packedSources[source], source);
+		}
 
-		// check list for duplicate ranges and remove duplicates
-		zipCodeRanges = removeDuplicates(zipCodeRanges);
+		long[] ranges = ZipRangeEngine.kWayMerge(packedSources);
+		return ZipRangeEngine.toStringRanges(ranges, ranges.length);
+	}
 
-		if (zipCodeRanges.size() == 1) {
-			return zipCodeRanges;
+	/**
+	 * Combines two sets of zip code ranges with the provided {@link com.steven.ws.impl.SetOperation}. Each set is
+	 * merged to its minimum set of ranges first, then both are combined in a single linear pass.
+	 * 
+	 * <pre>
+	 * Each set uses the same format as
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}.
+	 * 
+	 * Example: [94000,94999] DIFFERENCE [94200,94299] is [94000,94199] [94300,94999]
+	 * </pre>
+	 * 
+	 * @param leftZipCodeRanges
+	 *            the zip code ranges of the first set
+	 * @param rightZipCodeRanges
+	 *            the zip code ranges of the second set
+	 * @param setOperation
+	 *            the operation combining the two sets
+	 * @return the minimum set of ranges representing the combined restrictions, empty if no zip code is restricted
+	 */
+	public List<List<String>> retrieveRangeSetCombination(List<List<String>> leftZipCodeRanges,
+			List<List<String>> rightZipCodeRanges, SetOperation setOperation) {
+		if (setOperation == null) {
+			throw new IllegalArgumentException(
+					"The setOperation provided is null. Check your parameters and try again.");
 		}
 
-		List<List<String>> returnList = new ArrayList<>();
-		ListIterator<List<String>> iterator = zipCodeRanges.listIterator();
-		while (iterator.hasNext()) {
+		long[] ranges = setOperation.apply(retrieveMergedRanges(leftZipCodeRanges, MergeMode.SORT_SWEEP),
+				retrieveMergedRanges(rightZipCodeRanges, MergeMode.SORT_SWEEP));
+		return ZipRangeEngine.toStringRanges(ranges, ranges.length);
+	}
 
-			List<String> currentList = iterator.next();
-			List<String> nextList = null;
-			if (iterator.hasNext()) {
-				nextList = zipCodeRanges.get(iterator.nextIndex());
-			}
+	/**
+	 * Provides the ranges of every zip code, from 00000 to 99999, that is not restricted by the input ranges, @see
+	 * {@link com.steven.ws.impl.ZipRangeEngine#complement(long[])}
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @return the minimum set of ranges not covered by the input, empty if the input covers every zip code
+	 */
+	public List<List<String>> retrieveRangeSetComplement(List<List<String>> zipCodeRanges) {
+		long[] ranges = ZipRangeEngine.complement(retrieveMergedRanges(zipCodeRanges, MergeMode.SORT_SWEEP));
+		return ZipRangeEngine.toStringRanges(ranges, ranges.length);
+	}
 
-			if (!listContainsValue(returnList, currentList)) {
-				if (nextList != null && !listsOverlap(currentList, nextList)) {
-					// if currentList does not overlap with next list return currentList
-					returnList.add(currentList);
-				} else if (nextList != null) {
-					// if there is a list to compare to, compare for highest range of values and return total range
-					returnList.add(getMaximumRangeOfTwoRanges(currentList, nextList));
-				} else if (!listsOverlap(currentList, zipCodeRanges.get(iterator.previousIndex() - 1))) {
-					// if comparing the last item in the list, check previous item for overlap to avoid duplicate ranges
-					returnList.add(currentList);
-				}
-			}
+	/**
+	 * Builds an immutable lookup index from the minimum set of ranges for the input, so single zip codes can be checked
+	 * against the restrictions without merging the ranges again.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @return the index over the merged ranges
+	 */
+	public ZipRangeIndex buildRestrictionIndex(List<List<String>> zipCodeRanges) {
+		long[] ranges = retrieveMergedRanges(zipCodeRanges, MergeMode.SORT_SWEEP);
+		return ZipRangeIndex.fromMergedRanges(ranges, ranges.length);
+	}
 
-		}
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#buildRestrictionIndex(List)} for ranges that were already
+	 * parsed into packed primitives.
+	 * 
+	 * @param packedRanges
+	 *            the validated and oriented packed ranges in input order, not modified; the array may be retained
+	 *            and must not be modified afterwards
+	 * @return the index over the merged ranges
+	 */
+	public ZipRangeIndex buildRestrictionIndex(long[] packedRanges) {
+		validatePackedRanges(packedRanges);
+		long[] ranges = mergeNormalizedRanges(packedRanges, MergeMode.SORT_SWEEP);
+		return ZipRangeIndex.fromMergedRanges(ranges, ranges.length);
+	}
 
-		return returnList;
+	/**
+	 * Compiles the minimum set of ranges for the input, the same ranges returned by
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}, into a bit table
+	 * answering lookups in O(1).
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @return the table holding every zip code of the merged ranges
+	 */
+	public ZipCodeBitTable buildRestrictionTable(List<List<String>> zipCodeRanges) {
+		long[] ranges = retrieveMergedRanges(zipCodeRanges, MergeMode.SORT_SWEEP);
+		return ZipCodeBitTable.fromRanges(ranges, ranges.length);
 	}
 
 	/**
-	 * Helper method to operate on BO object instead of directly on a list in @see
-	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#buildRestrictionTable(List)} for ranges that were already
+	 * parsed into packed primitives.
 	 * 
-	 * @param zipRangeBo
-	 *            the input BO object containing the zip code ranges
-	 * @return the minimum set of ranges determined from the input ranges
+	 * @param packedRanges
+	 *            the validated and oriented packed ranges in input order, not modified; the array may be retained
+	 *            and must not be modified afterwards
+	 * @return the table holding every zip code of the merged ranges
 	 */
-	public List<List<String>> retrieveMinimumRangeSetFromArray(ZipRangeBO zipRangeBo) {
-		List<List<String>> list = new ArrayList<>();
-		for (ZipCodeRangeBO rangeBound : zipRangeBo.getZipCodeRanges()) {
-			list.add(rangeBound.getZipRange());
+	public ZipCodeBitTable buildRestrictionTable(long[] packedRanges) {
+		validatePackedRanges(packedRanges);
+		long[] ranges = mergeNormalizedRanges(packedRanges, MergeMode.SORT_SWEEP);
+		return ZipCodeBitTable.fromRanges(ranges, ranges.length);
+	}
+
+	/**
+	 * Checks if a zip code is restricted by the ranges in the provided index. The zip code is cleaned and validated the
+	 * same way as range values, @see ZipCodeNormalizer
+	 * 
+	 * @param restrictionIndex
+	 *            the index built with
+	 *            {@link com.steven.ws.impl.WsCodeChallengeManager#buildRestrictionIndex(List)}
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code falls in one of the restricted ranges, otherwise false
+	 */
+	public boolean isZipCodeRestricted(ZipRangeIndex restrictionIndex, String zipCode) {
+		return restrictionIndex.contains(parseZipCode(zipCode));
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}, returning the
+	 * ranges packed as described in {@link com.steven.ws.impl.ZipRangeEngine} instead of as Strings.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @return the minimum set of ranges as packed ranges, sorted by lower bound
+	 */
+	public long[] retrieveMinimumPackedRangeSet(List<List<String>> zipCodeRanges) {
+		return retrieveMergedRanges(zipCodeRanges, MergeMode.SORT_SWEEP).clone();
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumPackedRangeSet(List)} for ranges that were
+	 * already parsed into packed primitives.
+	 * 
+	 * @param packedRanges
+	 *            the validated and oriented packed ranges in input order, not modified; the array may be retained
+	 *            and must not be modified afterwards
+	 * @return the minimum set of ranges as packed ranges, sorted by lower bound
+	 */
+	public long[] retrieveMinimumPackedRangeSet(long[] packedRanges) {
+		return retrieveMinimumPackedRangeSet(packedRanges, MergeMode.SORT_SWEEP);
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumPackedRangeSet(long[])}, merging the
+	 * ranges with the provided {@link com.steven.ws.impl.MergeMode}.
+	 * 
+	 * @param packedRanges
+	 *            the validated and oriented packed ranges in input order, not modified; the array may be retained
+	 *            and must not be modified afterwards
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the minimum set of ranges as packed ranges, sorted by lower bound
+	 */
+	public long[] retrieveMinimumPackedRangeSet(long[] packedRanges, MergeMode mergeMode) {
+		validatePackedRanges(packedRanges);
+		return mergeNormalizedRanges(packedRanges, mergeMode).clone();
+	}
+
+	/**
+	 * Cleans and validates a single zip code value, @see ZipCodeNormalizer
+	 * 
+	 * @param zipCode
+	 *            the zip code to parse
+	 * @return the zip code as an integer
+	 */
+	public int parseZipCode(String zipCode) {
+		int parsedZipCode = ZipCodeNormalizer.parseZipCode(zipCode);
+		if (parsedZipCode == ZipCodeNormalizer.INVALID_ZIP_CODE) {
+			throw new IllegalArgumentException(
+					"The zip code provided is not valid, expected format is 5 digit integer, check your inputs and try again.");
+		}
+		return parsedZipCode;
+	}
+
+	/**
+	 * Checks a list of zip codes against the minimum set of ranges for the input. The zip codes are sorted once and
+	 * checked in a single pass over the merged ranges instead of one lookup per zip code, @see
+	 * {@link com.steven.ws.impl.ZipRangeEngine#containsAll(long[], int[])}
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @param zipCodes
+	 *            the zip codes to check, each cleaned and validated the same way as range values
+	 * @return for each zip code, in input order, true if it is restricted by the ranges, otherwise false
+	 */
+	public boolean[] checkZipCodesRestricted(List<List<String>> zipCodeRanges, List<String> zipCodes) {
+		if (CollectionUtils.isEmpty(zipCodes)) {
+			throw new IllegalArgumentException(
+					"The zipCodes provided is null or empty. Check your parameters and try again.");
+		}
+
+		int[] parsedZipCodes = new int[zipCodes.size()];
+		int index = 0;
+		for (String zipCode : zipCodes) {
+			parsedZipCodes[index++] = parseZipCode(zipCode);
 		}
-		return retrieveMinimumRangeSetFromArray(list);
+
+		return ZipRangeEngine.containsAll(retrieveMergedRanges(zipCodeRanges, MergeMode.SORT_SWEEP), parsedZipCodes);
 	}
 
 	/**
-	 * Attemps to clean data in each entry of the list. Will replace any character that is not a numeric digit with
-	 * empty space.
+	 * ZIP+4 version of {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumRangeSetFromArray(List)}.
+	 * Ranges are merged in a compressed bitmap, @see {@link com.steven.ws.impl.ZipPlus4Bitmap}, so ranges next to each
+	 * other are returned as one range.
+	 * 
+	 * <pre>
+	 * Each bound is a ZIP+4 code of 9 digits, e.g. 94133-1234, or a 5 digit zip code standing for all of its ZIP+4
+	 * codes, 94133-0000 as a lower bound and 94133-9999 as an upper bound. Values are cleaned the same way as 5 digit
+	 * zip codes, @see ZipCodeNormalizer
 	 * 
-	 * @param listToClean
-	 *            the list to clean
+	 * Example input: [["94133-0000","94133-4999"],["94133","94134-0100"]]
+	 * Example output: [["94133-0000","94134-0100"]]
+	 * </pre>
+	 * 
+	 * @param zipCodeRanges
+	 *            the input ZIP+4 code ranges
+	 * @return the minimum set of ranges determined from the input ranges, each code formatted as ZIP+4
 	 */
-	private void attemptToCleanData(List<List<String>> listToClean) {
-		listToClean.stream().forEach(list -> {
-			list.stream().forEach(item -> list.set(list.indexOf(item), item.replaceAll("[^0-9]+", "")));
-		});
+	public List<List<String>> retrieveMinimumZipPlus4RangeSet(List<List<String>> zipCodeRanges) {
+		ZipPlus4Bitmap restrictionSet = buildZipPlus4RestrictionSet(zipCodeRanges);
+
+		long formatStart = System.nanoTime();
+		List<List<String>> returnList = restrictionSet.toStringRanges();
+		metrics.recordPhase(Phase.FORMAT, formatStart);
 
+		return returnList;
 	}
 
 	/**
-	 * First sorts each sublist to ensure lower value is first in each sublist, then sorts the input multidimensional
-	 * List by the first value in each List within it.
+	 * ZIP+4 version of
+	 * {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveRangeSetCombination(List, List, SetOperation)}, combining
+	 * both compressed bitmaps chunk by chunk.
 	 * 
-	 * @param listToSort
-	 *            the list to Sort
+	 * @param leftZipCodeRanges
+	 *            the ZIP+4 code ranges of the first set
+	 * @param rightZipCodeRanges
+	 *            the ZIP+4 code ranges of the second set
+	 * @param setOperation
+	 *            the operation combining the two sets
+	 * @return the minimum set of ranges representing the combined restrictions, empty if no code is restricted
 	 */
-	private void sortListByFirstEntry(List<List<String>> listToSort) {
-
-		listToSort.stream().forEach(list -> {
-			String firstValue = list.get(0);
-			String secondValue = list.get(1);
-			if (Integer.parseInt(firstValue) > Integer.parseInt(secondValue)) {
-				list.set(0, secondValue);
-				list.set(1, firstValue);
-			}
-		});
+	public List<List<String>> retrieveZipPlus4RangeSetCombination(List<List<String>> leftZipCodeRanges,
+			List<List<String>> rightZipCodeRanges, SetOperation setOperation) {
+		if (setOperation == null) {
+			throw new IllegalArgumentException(
+					"The setOperation provided is null. Check your parameters and try again.");
+		}
+
+		return setOperation.apply(buildZipPlus4RestrictionSet(leftZipCodeRanges),
+				buildZipPlus4RestrictionSet(rightZipCodeRanges)).toStringRanges();
+	}
+
+	/**
+	 * Builds the compressed bitmap of every ZIP+4 code in the input ranges, so codes can be checked against the
+	 * restrictions without merging the ranges again.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input ZIP+4 code ranges, in the format of
+	 *            {@link com.steven.ws.impl.WsCodeChallengeManager#retrieveMinimumZipPlus4RangeSet(List)}
+	 * @return the bitmap of the restricted ZIP+4 codes
+	 */
+	public ZipPlus4Bitmap buildZipPlus4RestrictionSet(List<List<String>> zipCodeRanges) {
+		long[] ranges = normalizeToZipPlus4Ranges(zipCodeRanges);
+
+		long mergeStart = System.nanoTime();
+		ZipPlus4Bitmap restrictionSet = ZipPlus4Bitmap.fromRanges(ranges, ranges.length);
+		metrics.recordPhase(Phase.MERGE, mergeStart);
 
-		listToSort.sort((List<String> o1, List<String> o2) -> o1.get(0).compareTo(o2.get(0)));
+		return restrictionSet;
 	}
 
 	/**
-	 * Checks if a multidimensional List contains another provided List.
+	 * Checks a list of ZIP+4 codes against the input ranges with one bitmap lookup per code.
 	 * 
-	 * @param lists
-	 *            the lists to check
-	 * @param value
-	 *            the list value to check against lists parameter
-	 * @return true if the multidimensional list contains the list, otherwise false.
+	 * @param zipCodeRanges
+	 *            the input ZIP+4 code ranges
+	 * @param zipCodes
+	 *            the ZIP+4 codes to check, each of 9 digits and cleaned the same way as range values
+	 * @return for each code, in input order, true if it is restricted by the ranges, otherwise false
 	 */
-	private boolean listContainsValue(List<List<String>> lists, List<String> value) {
-		boolean listContainsRange = false;
-		for (List<String> list : lists) {
-			if (listsOverlap(list, value)) {
-				listContainsRange = true;
-				break;
+	public boolean[] checkZipPlus4CodesRestricted(List<List<String>> zipCodeRanges, List<String> zipCodes) {
+		if (CollectionUtils.isEmpty(zipCodes)) {
+			throw new IllegalArgumentException(
+					"The zipCodes provided is null or empty. Check your parameters and try again.");
+		}
+
+		int[] parsedZipCodes = new int[zipCodes.size()];
+		int index = 0;
+		for (String zipCode : zipCodes) {
+			int parsedZipCode = ZipCodeNormalizer.parseZipPlus4Code(zipCode, false);
+			// a 5 digit zip code expands to different first and last codes, a single ZIP+4 code does not
+			if (parsedZipCode == ZipCodeNormalizer.INVALID_ZIP_CODE
+					|| parsedZipCode != ZipCodeNormalizer.parseZipPlus4Code(zipCode, true)) {
+				throw new IllegalArgumentException(
+						"The zip code provided is not valid, expected format is 9 digit integer, check your inputs and try again.");
 			}
+			parsedZipCodes[index++] = parsedZipCode;
+		}
+
+		ZipPlus4Bitmap restrictionSet = buildZipPlus4RestrictionSet(zipCodeRanges);
+		boolean[] restricted = new boolean[parsedZipCodes.length];
+		for (int i = 0; i < parsedZipCodes.length; i++) {
+			restricted[i] = restrictionSet.contains(parsedZipCodes[i]);
 		}
+		return restricted;
+	}
 
-		return listContainsRange;
+	/**
+	 * Cleans, validates and merges the input ranges with the provided strategy.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the merged packed ranges, sorted by lower bound, which must not be modified as they may be cached
+	 */
+	private long[] retrieveMergedRanges(List<List<String>> zipCodeRanges, MergeMode mergeMode) {
+		// parse each range once into packed primitives, then merge with the requested strategy
+		return mergeNormalizedRanges(normalizeToPackedRanges(zipCodeRanges), mergeMode);
 	}
 
 	/**
-	 * Checks a multidimensional list to determine if the list contains duplicate entries.
+	 * Merges normalized packed ranges with the provided strategy, going through the result cache when one is
+	 * configured.
 	 * 
-	 * @param lists
-	 *            the multidimensional list to be checked.
-	 * @return the list containing only unique values.
+	 * @param ranges
+	 *            the validated and oriented packed ranges in input order, never modified and retained as the cache key
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the merged packed ranges, sorted by lower bound, which must not be modified as they may be cached
 	 */
-	private List<List<String>> removeDuplicates(List<List<String>> lists) {
-		List<List<String>> returnList = new ArrayList<>();
-		for (List<String> list : lists) {
-			if (!returnList.contains(list)) {
-				returnList.add(list);
+	private long[] mergeNormalizedRanges(long[] ranges, MergeMode mergeMode) {
+		long[] mergedRanges = resultCache == null ? null : resultCache.get(ranges);
+		if (mergedRanges == null) {
+			// the merge sorts in place, so merge a copy; callers may hold on to their ranges and the cache keys on them
+			mergedRanges = mergePackedRanges(ranges.clone(), mergeMode);
+			if (resultCache != null) {
+				resultCache.put(ranges, mergedRanges);
 			}
 		}
 
-		return returnList;
+		metrics.recordRangeCounts(ranges.length, mergedRanges.length);
+		ZipRangePhaseTrace.recordMerge(ranges, mergedRanges);
+		return mergedRanges;
 	}
 
 	/**
-	 * Checks if a multidimensional array contains any values that do not match a 5 digit zipCode format. Validation of
-	 * zipCode format uses @see ZIP_CODE_FORMAT Throws IllegalArgumentException if value does not match expected format,
-	 * otherwise no action is taken.
+	 * Merges packed ranges with the provided strategy.
 	 * 
-	 * @param unacceptableZipCodeRange
-	 *            The multidimensional array to be validated.
+	 * @param ranges
+	 *            the packed ranges in input order, may be modified
+	 * @param mergeMode
+	 *            the strategy used to merge the ranges, defaults to SORT_SWEEP when null
+	 * @return the merged packed ranges, sorted by lower bound
 	 */
-	private void validateListData(List<List<String>> listToCheck) {
-		boolean hasMissingValue = false;
+	private long[] mergePackedRanges(long[] ranges, MergeMode mergeMode) {
+		long mergeStart = System.nanoTime();
+		if (mergeMode == MergeMode.PARALLEL
+				|| (mergeMode != MergeMode.BITSET && ranges.length >= parallelThreshold)) {
+			// chunks are sorted and merged together, so the whole parallel merge is timed as one phase
+			long[] mergedRanges = ParallelRangeMerger.merge(mergePool, ranges);
+			metrics.recordPhase(Phase.MERGE, mergeStart);
+			return mergedRanges;
+		}
 
-		if (CollectionUtils.isEmpty(listToCheck)) {
-			hasMissingValue = true;
+		int mergedCount;
+		if (mergeMode == MergeMode.BITSET) {
+			mergedCount = ZipRangeEngine.bitSetMerge(ranges, ranges.length);
+		} else {
+			ZipRangeEngine.sortByLowerBound(ranges, ranges.length);
+			metrics.recordPhase(Phase.SORT, mergeStart);
+			mergeStart = System.nanoTime();
+			mergedCount = ZipRangeEngine.sweep(ranges, ranges.length);
 		}
+		metrics.recordPhase(Phase.MERGE, mergeStart);
+
+		return mergedCount == ranges.length ? ranges : Arrays.copyOf(ranges, mergedCount);
+	}
 
-		if (!hasMissingValue) {
-			for (List<String> list : listToCheck) {
-				for (String item : list) {
-					if (item == null || !item.matches(ZIP_CODE_FORMAT)) {
-						hasMissingValue = true;
-						break;
-					}
-				}
+	/**
+	 * Normalizes the input ranges in a single pass: each value is cleaned of any character that is not a numeric digit,
+	 * validated as a 5 digit zip code, and each range is oriented so the lower value comes first and packed, @see
+	 * {@link com.steven.ws.impl.ZipCodeNormalizer#parseZipCode(CharSequence)}. Throws IllegalArgumentException if a
+	 * range does not hold exactly 2 valid zip codes. The input lists are not modified.
+	 * 
+	 * @param zipCodeRanges
+	 *            the input zip code ranges
+	 * @return the packed ranges in input order
+	 */
+	private long[] normalizeToPackedRanges(List<List<String>> zipCodeRanges) {
+		if (CollectionUtils.isEmpty(zipCodeRanges)) {
+			throw new IllegalArgumentException(
+					"The zipCodeRanges provided is null or empty. Check your parameters and try again.");
+		}
 
+		long phaseStart = System.nanoTime();
+		long[] ranges = new long[zipCodeRanges.size()];
+		int index = 0;
+		for (List<String> list : zipCodeRanges) {
+			int first = ZipCodeNormalizer.INVALID_ZIP_CODE;
+			int second = ZipCodeNormalizer.INVALID_ZIP_CODE;
+			if (list != null && list.size() == 2) {
+				first = ZipCodeNormalizer.parseZipCode(list.get(0));
+				second = ZipCodeNormalizer.parseZipCode(list.get(1));
+			}
+			if (first == ZipCodeNormalizer.INVALID_ZIP_CODE || second == ZipCodeNormalizer.INVALID_ZIP_CODE) {
+				throw new IllegalArgumentException(
+						"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again.");
 			}
+			ranges[index++] = ZipRangeEngine.pack(first, second);
 		}
+		metrics.recordPhase(Phase.NORMALIZE, phaseStart);
 
-		if (hasMissingValue) {
+		return ranges;
+	}
+
+	/**
+	 * ZIP+4 version of the 5 digit normalization, @see normalizeToPackedRanges(List). Each bound is expanded both
+	 * ways, a 5 digit zip code to its first and last ZIP+4 codes, and the range runs from the lowest first code to
+	 * the highest last code, so it holds every code either bound stands for whatever their order, @see
+	 * {@link com.steven.ws.impl.ZipCodeNormalizer#parseZipPlus4Code(CharSequence, boolean)}
+	 * 
+	 * @param zipCodeRanges
+	 *            the input ZIP+4 code ranges
+	 * @return the packed ranges in input order
+	 */
+	private long[] normalizeToZipPlus4Ranges(List<List<String>> zipCodeRanges) {
+		if (CollectionUtils.isEmpty(zipCodeRanges)) {
 			throw new IllegalArgumentException(
-					"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again.");
+					"The zipCodeRanges provided is null or empty. Check your parameters and try again.");
 		}
+
+		long phaseStart = System.nanoTime();
+		long[] ranges = new long[zipCodeRanges.size()];
+		int index = 0;
+		for (List<String> list : zipCodeRanges) {
+			int first = ZipCodeNormalizer.INVALID_ZIP_CODE;
+			int second = ZipCodeNormalizer.INVALID_ZIP_CODE;
+			if (list != null && list.size() == 2) {
+				first = ZipCodeNormalizer.parseZipPlus4Code(list.get(0), false);
+				second = ZipCodeNormalizer.parseZipPlus4Code(list.get(1), false);
+			}
+			if (first == ZipCodeNormalizer.INVALID_ZIP_CODE || second == ZipCodeNormalizer.INVALID_ZIP_CODE) {
+				throw new IllegalArgumentException(
+						"The list provided does not contain valid ZIP+4 code values, expected format is 9 or 5 digit integer per entry, check your inputs and try again.");
+			}
+			int upperBound = Math.max(ZipCodeNormalizer.parseZipPlus4Code(list.get(0), true),
+					ZipCodeNormalizer.parseZipPlus4Code(list.get(1), true));
+			ranges[index++] = ZipRangeEngine.pack(Math.min(first, second), upperBound);
+		}
+		metrics.recordPhase(Phase.NORMALIZE, phaseStart);
+
+		return ranges;
 	}
 
 	/**
-	 * Checks if the values of two lists overlap. Expected values are String that are parseable to Integers.
-	 * 
-	 * @param list1
-	 *            The first list to check.
-	 * @param list2
-	 *            The second list to check.
+	 * Checks that already parsed packed ranges are present and hold 5 digit zip codes. Throws IllegalArgumentException
+	 * if they do not, otherwise no action is taken.
 	 * 
-	 * @return true if the lists ranges overlap, false if the ranges do not, NumberFormatExceptionif the strings do not
-	 *         contain parsable integers.
+	 * @param packedRanges
+	 *            the packed ranges to check
 	 */
-	private boolean listsOverlap(List<String> list1, List<String> list2) {
-		int maxOfLowerRange = 0;
-		int minOfHigherRange = 0;
-		if (list1 != null && list1.size() == 2 && list2 != null && list2.size() == 2) {
-			int list1A = Integer.parseInt(list1.get(0));
-			int list1B = Integer.parseInt(list1.get(1));
-			int list2A = Integer.parseInt(list2.get(0));
-			int list2B = Integer.parseInt(list2.get(1));
-			maxOfLowerRange = Math.max(list1A, list2A);
-			minOfHigherRange = Math.min(list1B, list2B);
+	private void validatePackedRanges(long[] packedRanges) {
+		if (packedRanges == null || packedRanges.length == 0) {
+			throw new IllegalArgumentException(
+					"The zipCodeRanges provided is null or empty. Check your parameters and try again.");
+		}
+		for (long range : packedRanges) {
+			if (ZipRangeEngine.low(range) < 0 || ZipRangeEngine.low(range) > ZipRangeEngine.high(range)
+					|| ZipRangeEngine.high(range) >= ZipRangeEngine.ZIP_CODE_UNIVERSE) {
+				throw new IllegalArgumentException(
+						"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again.");
+			}
 		}
-
-		return maxOfLowerRange <= minOfHigherRange;
 	}
 
 	/**
-	 * Checks the two input lists to determine the maximum range between the lowermost and uppermost values in the
-	 * provided lists. Lists are expected to only contain 2 items each and values to be parseabe Integers.
-	 * 
-	 * If the above conditions are not met, an empty list is returned.
-	 * 
-	 * @param list1
-	 *            The first list to check.
-	 * @param list2
-	 *            The second list to check.
-	 * @return The list containing the largest range of the two list's values, If the lists provided are not in the
-	 *         expected format, an empty list is returned. NumberFormatException if the strings do not contain parsable
-	 *         integers.
+	 * Checks that packed ranges are sorted by lower bound. Throws IllegalArgumentException if they are not, otherwise no
+	 * action is taken.
+	 * 
+	 * @param packedRanges
+	 *            the packed ranges to check
+	 * @param source
+	 *            the position of the source the ranges came from, used in the error message
 	 */
-	private List<String> getMaximumRangeOfTwoRanges(List<String> list1, List<String> list2) {
-		List<String> largerRange = new ArrayList<>();
-		if (list1 != null && list1.size() == 2 && list2 != null && list2.size() == 2) {
-			int list1A = Integer.parseInt(list1.get(0));
-			int list1B = Integer.parseInt(list1.get(1));
-			int list2A = Integer.parseInt(list2.get(0));
-			int list2B = Integer.parseInt(list2.get(1));
-
-			String min = list1A < list2A ? list1.get(0) : list2.get(0);
-			String max = list1B > list2B ? list1.get(1) : list2.get(1);
-
-			largerRange.add(min);
-			largerRange.add(max);
+	private void validateSortedByLowerBound(long[] packedRanges, int source) {
+		for (int i = 1; i < packedRanges.length; i++) {
+			if (ZipRangeEngine.low(packedRanges[i]) < ZipRangeEngine.low(packedRanges[i - 1])) {
+				throw new IllegalArgumentException("The source at position " + source
+						+ " is not sorted by lower zip code value, check your inputs and try again.");
+			}
 		}
-		return largerRange;
 	}
 
 }
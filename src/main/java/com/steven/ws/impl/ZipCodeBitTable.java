@@ -0,0 +1,115 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable lookup table holding one bit per zip code from 00000 to 99999, 1563 longs or about 12.5 KB, so membership
+ * of a zip code is answered in O(1) with a single array read whatever the number of ranges.
+ *
+ * <pre>
+ * Tables are never modified once built, adding ranges returns a new table, so a table can be shared between threads
+ * and swapped atomically, @see {@link com.steven.ws.impl.HotRestrictionTables}.
+ * </pre>
+ */
+public final class ZipCodeBitTable {
+
+	private static final int WORD_COUNT = (ZipRangeEngine.ZIP_CODE_UNIVERSE + 63) >>> 6;
+
+	public static final ZipCodeBitTable EMPTY = new ZipCodeBitTable(new long[WORD_COUNT]);
+
+	private final long[] words;
+
+	private ZipCodeBitTable(long[] words) {
+		this.words = words;
+	}
+
+	/**
+	 * @param ranges
+	 *            the packed ranges to set, @see {@link com.steven.ws.impl.ZipRangeEngine}; they do not need to be
+	 *            sorted or merged
+	 * @param length
+	 *            the number of ranges in the array to set
+	 * @return the table holding every zip code of the ranges
+	 */
+	public static ZipCodeBitTable fromRanges(long[] ranges, int length) {
+		return EMPTY.withRanges(ranges, length);
+	}
+
+	/**
+	 * Builds a copy of this table with the ranges added, leaving this table unchanged.
+	 *
+	 * @param ranges
+	 *            the packed ranges to add
+	 * @param length
+	 *            the number of ranges in the array to add
+	 * @return the new table
+	 */
+	public ZipCodeBitTable withRanges(long[] ranges, int length) {
+		long[] newWords = words.clone();
+		for (int i = 0; i < length; i++) {
+			setRange(newWords, ZipRangeEngine.low(ranges[i]), ZipRangeEngine.high(ranges[i]));
+		}
+		return new ZipCodeBitTable(newWords);
+	}
+
+	/**
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code is in the table, false if it is not or is outside of 00000 to 99999
+	 */
+	public boolean contains(int zipCode) {
+		return zipCode >= 0 && zipCode < ZipRangeEngine.ZIP_CODE_UNIVERSE
+				&& (words[zipCode >>> 6] & (1L << zipCode)) != 0;
+	}
+
+	/**
+	 * @return the number of zip codes in the table
+	 */
+	public int cardinality() {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		return cardinality;
+	}
+
+	/**
+	 * @return the runs of zip codes in the table as packed ranges sorted by lower bound; ranges next to each other come
+	 *         back as one range
+	 */
+	public long[] toPackedRanges() {
+		BitSet zipCodes = BitSet.valueOf(words);
+		long[] ranges = new long[16];
+		int count = 0;
+		int runStart = zipCodes.nextSetBit(0);
+		while (runStart >= 0) {
+			int runEnd = zipCodes.nextClearBit(runStart);
+			if (count == ranges.length) {
+				ranges = Arrays.copyOf(ranges, count * 2);
+			}
+			ranges[count++] = ZipRangeEngine.pack(runStart, runEnd - 1);
+			runStart = zipCodes.nextSetBit(runEnd);
+		}
+		return Arrays.copyOf(ranges, count);
+	}
+
+	/**
+	 * Sets the bits from low to high inclusive, filling the whole words between the first and last word at once.
+	 */
+	private static void setRange(long[] words, int low, int high) {
+		int firstWord = low >>> 6;
+		int lastWord = high >>> 6;
+		// shifts only use the low 6 bits of the distance, so these are the bits from low and up to high in their word
+		long firstMask = -1L << low;
+		long lastMask = -1L >>> (63 - (high & 63));
+		if (firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+		} else {
+			words[firstWord] |= firstMask;
+			Arrays.fill(words, firstWord + 1, lastWord, -1L);
+			words[lastWord] |= lastMask;
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package com.steven.ws.impl;
+
+/**
+ * Regex free cleaning and validation of single zip code values. A value is cleaned by ignoring every character that
+ * is not a digit, and is valid when exactly 5 digits remain, which matches the behaviour of stripping
+ * {@code [^0-9]+} and checking the result against {@code [0-9]{5}} without allocating the cleaned String.
+ */
+public final class ZipCodeNormalizer {
+
+	/**
+	 * Returned by {@link #parseZipCode(CharSequence)} when a value is not a valid zip code.
+	 */
+	public static final int INVALID_ZIP_CODE = -1;
+
+	private static final int ZIP_CODE_LENGTH = 5;
+
+	private static final int ZIP_PLUS4_CODE_LENGTH = 9;
+
+	/**
+	 * Number of ZIP+4 codes sharing a 5 digit zip code.
+	 */
+	public static final int ZIP_PLUS4_CODES_PER_ZIP_CODE = 10000;
+
+	private ZipCodeNormalizer() {
+	}
+
+	/**
+	 * @param value
+	 *            the zip code value to clean and parse, may be null
+	 * @return the zip code as an integer, or {@link #INVALID_ZIP_CODE} if the value is null or does not hold exactly 5
+	 *         digits
+	 */
+	public static int parseZipCode(CharSequence value) {
+		if (value == null) {
+			return INVALID_ZIP_CODE;
+		}
+
+		int zipCode = 0;
+		int digits = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character >= '0' && character <= '9') {
+				if (++digits > ZIP_CODE_LENGTH) {
+					return INVALID_ZIP_CODE;
+				}
+				zipCode = zipCode * 10 + (character - '0');
+			}
+		}
+		return digits == ZIP_CODE_LENGTH ? zipCode : INVALID_ZIP_CODE;
+	}
+
+	/**
+	 * Same as {@link com.steven.ws.impl.ZipCodeNormalizer#parseZipCode(CharSequence)} for a value held in a slice of a
+	 * character buffer, e.g. the text buffer of a streaming JSON parser, so no String has to be created for it.
+	 * 
+	 * @param buffer
+	 *            the buffer holding the value
+	 * @param offset
+	 *            the offset of the first character of the value
+	 * @param length
+	 *            the number of characters in the value
+	 * @return the zip code as an integer, or {@link #INVALID_ZIP_CODE} if the value does not hold exactly 5 digits
+	 */
+	public static int parseZipCode(char[] buffer, int offset, int length) {
+		int zipCode = 0;
+		int digits = 0;
+		for (int i = offset; i < offset + length; i++) {
+			char character = buffer[i];
+			if (character >= '0' && character <= '9') {
+				if (++digits > ZIP_CODE_LENGTH) {
+					return INVALID_ZIP_CODE;
+				}
+				zipCode = zipCode * 10 + (character - '0');
+			}
+		}
+		return digits == ZIP_CODE_LENGTH ? zipCode : INVALID_ZIP_CODE;
+	}
+
+	/**
+	 * Cleans and parses a ZIP+4 range bound the same way as
+	 * {@link com.steven.ws.impl.ZipCodeNormalizer#parseZipCode(CharSequence)}, accepting 9 digits, e.g. 94133-1234,
+	 * or a 5 digit zip code standing for all of its ZIP+4 codes.
+	 * 
+	 * @param value
+	 *            the ZIP+4 code value to clean and parse, may be null
+	 * @param upperBound
+	 *            true to expand a 5 digit zip code to its last ZIP+4 code, e.g. 94133 to 94133-9999, false to expand
+	 *            it to its first one, 94133-0000
+	 * @return the ZIP+4 code as an integer, or {@link #INVALID_ZIP_CODE} if the value is null or does not hold exactly 5
+	 *         or 9 digits
+	 */
+	public static int parseZipPlus4Code(CharSequence value, boolean upperBound) {
+		if (value == null) {
+			return INVALID_ZIP_CODE;
+		}
+
+		int zipCode = 0;
+		int digits = 0;
+		for (int i = 0; i < value.length(); i++) {
+			char character = value.charAt(i);
+			if (character >= '0' && character <= '9') {
+				if (++digits > ZIP_PLUS4_CODE_LENGTH) {
+					return INVALID_ZIP_CODE;
+				}
+				zipCode = zipCode * 10 + (character - '0');
+			}
+		}
+		if (digits == ZIP_CODE_LENGTH) {
+			return zipCode * ZIP_PLUS4_CODES_PER_ZIP_CODE + (upperBound ? ZIP_PLUS4_CODES_PER_ZIP_CODE - 1 : 0);
+		}
+		return digits == ZIP_PLUS4_CODE_LENGTH ? zipCode : INVALID_ZIP_CODE;
+	}
+
+}
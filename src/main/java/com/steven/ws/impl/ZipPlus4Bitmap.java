@@ -0,0 +1,282 @@
+package com.steven.ws.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable compressed set of ZIP+4 codes, 000000000 to 999999999, following Roaring bitmaps: codes are split into
+ * chunks sharing their high 16 bits, and each chunk holding any code is stored in an array, bitmap or run container,
+ * @see {@link com.steven.ws.impl.ZipPlus4Container}.
+ *
+ * <pre>
+ * Memory depends on the restrictions and not on the 10^9 key space: a range costs 4 bytes in each chunk it touches,
+ * and chunks it covers entirely are shared run containers of a single run. Set operations walk both sets chunk by
+ * chunk, sharing the containers only one side has and combining the others.
+ *
+ * Ranges are packed as described in {@link com.steven.ws.impl.ZipRangeEngine}, with ZIP+4 codes as bounds.
+ * </pre>
+ */
+public final class ZipPlus4Bitmap {
+
+	/**
+	 * Number of distinct ZIP+4 codes, 000000000 to 999999999.
+	 */
+	public static final int ZIP_PLUS4_UNIVERSE = 1000000000;
+
+	public static final ZipPlus4Bitmap EMPTY = new ZipPlus4Bitmap(new char[0], new ZipPlus4Container[0], 0);
+
+	private static final ZipPlus4Container FULL_CHUNK = ZipPlus4Container
+			.fromRuns(new int[] { 0, ZipPlus4Container.CHUNK_SIZE - 1 }, 2);
+
+	private final char[] keys;
+
+	private final ZipPlus4Container[] containers;
+
+	private ZipPlus4Bitmap(char[] keys, ZipPlus4Container[] containers, int length) {
+		this.keys = length == keys.length ? keys : Arrays.copyOf(keys, length);
+		this.containers = length == containers.length ? containers : Arrays.copyOf(containers, length);
+	}
+
+	/**
+	 * @param ranges
+	 *            the packed ZIP+4 ranges, in any order and possibly overlapping; the array is not modified
+	 * @param length
+	 *            the number of ranges in the array to add
+	 * @return the set of every ZIP+4 code in the ranges
+	 */
+	public static ZipPlus4Bitmap fromRanges(long[] ranges, int length) {
+		// the radix sort of the engine only covers 5 digit bounds, so sort the packed values directly
+		long[] mergedRanges = Arrays.copyOf(ranges, length);
+		Arrays.sort(mergedRanges);
+		int mergedCount = ZipRangeEngine.sweep(mergedRanges, length);
+
+		Builder builder = new Builder(mergedCount);
+		ZipPlus4Container.RunBuilder chunkRuns = new ZipPlus4Container.RunBuilder(16);
+		int chunkKey = -1;
+		for (int i = 0; i < mergedCount; i++) {
+			int low = ZipRangeEngine.low(mergedRanges[i]);
+			int high = ZipRangeEngine.high(mergedRanges[i]);
+			// ranges are sorted and do not overlap, so the chunks they touch come in order
+			for (int key = low >>> 16; key <= high >>> 16; key++) {
+				if (key != chunkKey) {
+					builder.add(chunkKey, ZipPlus4Container.fromRuns(chunkRuns.runs, chunkRuns.length));
+					chunkRuns.length = 0;
+					chunkKey = key;
+				}
+				int start = key == low >>> 16 ? low & 0xFFFF : 0;
+				int end = key == high >>> 16 ? high & 0xFFFF : ZipPlus4Container.CHUNK_SIZE - 1;
+				chunkRuns.add(start, end);
+			}
+		}
+		builder.add(chunkKey, ZipPlus4Container.fromRuns(chunkRuns.runs, chunkRuns.length));
+		return builder.build();
+	}
+
+	/**
+	 * @param zipPlus4Code
+	 *            the ZIP+4 code to check, e.g. 941331234
+	 * @return true if the code is in the set, false if it is not or is outside of 000000000 to 999999999
+	 */
+	public boolean contains(int zipPlus4Code) {
+		if (zipPlus4Code < 0 || zipPlus4Code >= ZIP_PLUS4_UNIVERSE) {
+			return false;
+		}
+		int index = Arrays.binarySearch(keys, (char) (zipPlus4Code >>> 16));
+		return index >= 0 && containers[index].contains(zipPlus4Code & 0xFFFF);
+	}
+
+	/**
+	 * @param other
+	 *            the set to add
+	 * @return the codes in either set
+	 */
+	public ZipPlus4Bitmap union(ZipPlus4Bitmap other) {
+		Builder builder = new Builder(keys.length + other.keys.length);
+		int i = 0;
+		int j = 0;
+		while (i < keys.length || j < other.keys.length) {
+			if (j == other.keys.length || (i < keys.length && keys[i] < other.keys[j])) {
+				builder.add(keys[i], containers[i++]);
+			} else if (i == keys.length || other.keys[j] < keys[i]) {
+				builder.add(other.keys[j], other.containers[j++]);
+			} else {
+				builder.add(keys[i], containers[i++].union(other.containers[j++]));
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @param other
+	 *            the set to intersect with
+	 * @return the codes in both sets
+	 */
+	public ZipPlus4Bitmap intersection(ZipPlus4Bitmap other) {
+		Builder builder = new Builder(Math.min(keys.length, other.keys.length));
+		int i = 0;
+		int j = 0;
+		while (i < keys.length && j < other.keys.length) {
+			if (keys[i] < other.keys[j]) {
+				i++;
+			} else if (other.keys[j] < keys[i]) {
+				j++;
+			} else {
+				builder.add(keys[i], containers[i++].intersection(other.containers[j++]));
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @param other
+	 *            the set to remove
+	 * @return the codes in this set but not in the other one
+	 */
+	public ZipPlus4Bitmap difference(ZipPlus4Bitmap other) {
+		Builder builder = new Builder(keys.length);
+		int j = 0;
+		for (int i = 0; i < keys.length; i++) {
+			while (j < other.keys.length && other.keys[j] < keys[i]) {
+				j++;
+			}
+			if (j < other.keys.length && other.keys[j] == keys[i]) {
+				builder.add(keys[i], containers[i].difference(other.containers[j]));
+			} else {
+				builder.add(keys[i], containers[i]);
+			}
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return the number of ZIP+4 codes in the set
+	 */
+	public long cardinality() {
+		long cardinality = 0;
+		for (ZipPlus4Container container : containers) {
+			cardinality += container.cardinality();
+		}
+		return cardinality;
+	}
+
+	/**
+	 * @return the approximate memory taken by the keys and the content of the containers, in bytes
+	 */
+	public long sizeInBytes() {
+		long size = keys.length * 2L;
+		for (ZipPlus4Container container : containers) {
+			size += container.sizeInBytes();
+		}
+		return size;
+	}
+
+	/**
+	 * @return the runs of codes in the set as packed ranges sorted by lower bound; ranges next to each other, including
+	 *         across chunks, come back as one range
+	 */
+	public long[] toPackedRanges() {
+		long[] ranges = new long[Math.max(containers.length, 1)];
+		int count = 0;
+		int currentLow = -1;
+		int currentHigh = -2;
+		for (int i = 0; i < keys.length; i++) {
+			int base = keys[i] << 16;
+			int[] runs = containers[i].toRuns();
+			for (int run = 0; run < runs.length; run += 2) {
+				int low = base + runs[run];
+				int high = base + runs[run + 1];
+				if (low == currentHigh + 1) {
+					currentHigh = high;
+					continue;
+				}
+				if (currentLow >= 0) {
+					if (count == ranges.length) {
+						ranges = Arrays.copyOf(ranges, count * 2);
+					}
+					ranges[count++] = ZipRangeEngine.pack(currentLow, currentHigh);
+				}
+				currentLow = low;
+				currentHigh = high;
+			}
+		}
+		if (currentLow >= 0) {
+			if (count == ranges.length) {
+				ranges = Arrays.copyOf(ranges, count + 1);
+			}
+			ranges[count++] = ZipRangeEngine.pack(currentLow, currentHigh);
+		}
+		return Arrays.copyOf(ranges, count);
+	}
+
+	/**
+	 * @return the runs of codes in the set in the String list format returned by the manager, each code formatted as
+	 *         ZIP+4, e.g. 94133-1234
+	 */
+	public List<List<String>> toStringRanges() {
+		long[] ranges = toPackedRanges();
+		List<List<String>> stringRanges = new ArrayList<>(ranges.length);
+		for (long range : ranges) {
+			List<String> stringRange = new ArrayList<>(2);
+			stringRange.add(formatZipPlus4Code(ZipRangeEngine.low(range)));
+			stringRange.add(formatZipPlus4Code(ZipRangeEngine.high(range)));
+			stringRanges.add(stringRange);
+		}
+		return stringRanges;
+	}
+
+	/**
+	 * @param zipPlus4Code
+	 *            the ZIP+4 code, e.g. 941331234
+	 * @return the code formatted as 5 digits, a dash and 4 digits, e.g. 94133-1234
+	 */
+	public static String formatZipPlus4Code(int zipPlus4Code) {
+		char[] formatted = new char[10];
+		int value = zipPlus4Code;
+		for (int i = formatted.length - 1; i >= 0; i--) {
+			if (i == 5) {
+				formatted[i] = '-';
+				continue;
+			}
+			formatted[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return new String(formatted);
+	}
+
+	/**
+	 * Collects containers in key order, skipping the chunks left empty by an operation.
+	 */
+	private static final class Builder {
+
+		private char[] keys;
+
+		private ZipPlus4Container[] containers;
+
+		private int length;
+
+		private Builder(int capacity) {
+			keys = new char[Math.max(capacity, 1)];
+			containers = new ZipPlus4Container[keys.length];
+		}
+
+		private void add(int key, ZipPlus4Container container) {
+			if (container == null) {
+				return;
+			}
+			if (length == keys.length) {
+				keys = Arrays.copyOf(keys, length * 2);
+				containers = Arrays.copyOf(containers, length * 2);
+			}
+			keys[length] = (char) key;
+			// a full chunk is always the same single run, so ranges spanning many chunks share one container
+			containers[length++] = container.cardinality() == ZipPlus4Container.CHUNK_SIZE ? FULL_CHUNK : container;
+		}
+
+		private ZipPlus4Bitmap build() {
+			return new ZipPlus4Bitmap(keys, containers, length);
+		}
+
+	}
+
+}
@@ -0,0 +1,384 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Immutable set of the low 16 bits of the ZIP+4 codes sharing the same high 16 bits, held in one of three forms
+ * following Roaring bitmaps, @see {@link com.steven.ws.impl.ZipPlus4Bitmap}.
+ *
+ * <pre>
+ * 	- array: the sorted values, 2 bytes each, for sparse chunks of at most 4096 values
+ * 	- bitmap: one bit per value, 8 KB, for dense chunks with many gaps
+ * 	- run: inclusive start and end of each run of values, 4 bytes per run, for chunks made of a few ranges
+ *
+ * Every container built by an operation takes whichever form is smallest for its content, so restrictions made of
+ * ranges, the common case, cost a few bytes per range whatever their width.
+ * </pre>
+ */
+abstract class ZipPlus4Container {
+
+	static final int CHUNK_SIZE = 1 << 16;
+
+	private static final int BITMAP_WORDS = CHUNK_SIZE / 64;
+
+	private static final int BITMAP_BYTES = BITMAP_WORDS * 8;
+
+	private static final int ARRAY_MAXIMUM_CARDINALITY = BITMAP_BYTES / 2;
+
+	/**
+	 * @param value
+	 *            the low 16 bits of a ZIP+4 code
+	 * @return true if the value is in the container
+	 */
+	abstract boolean contains(int value);
+
+	abstract int cardinality();
+
+	abstract int sizeInBytes();
+
+	/**
+	 * @return the inclusive start and end of each run of values as consecutive ints, sorted and with no two runs
+	 *         overlapping or next to each other
+	 */
+	abstract int[] toRuns();
+
+	ZipPlus4Container union(ZipPlus4Container other) {
+		if (this instanceof BitmapContainer && other instanceof BitmapContainer) {
+			long[] words = ((BitmapContainer) this).words.clone();
+			long[] otherWords = ((BitmapContainer) other).words;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				words[i] |= otherWords[i];
+			}
+			return fromWords(words);
+		}
+		int[] left = toRuns();
+		int[] right = other.toRuns();
+		RunBuilder runs = new RunBuilder(left.length + right.length);
+		int i = 0;
+		int j = 0;
+		while (i < left.length || j < right.length) {
+			if (j == right.length || (i < left.length && left[i] <= right[j])) {
+				runs.add(left[i], left[i + 1]);
+				i += 2;
+			} else {
+				runs.add(right[j], right[j + 1]);
+				j += 2;
+			}
+		}
+		return fromRuns(runs.runs, runs.length);
+	}
+
+	/**
+	 * @return the values in both containers, or null if there are none
+	 */
+	ZipPlus4Container intersection(ZipPlus4Container other) {
+		if (this instanceof BitmapContainer && other instanceof BitmapContainer) {
+			long[] words = ((BitmapContainer) this).words.clone();
+			long[] otherWords = ((BitmapContainer) other).words;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				words[i] &= otherWords[i];
+			}
+			return fromWords(words);
+		}
+		int[] left = toRuns();
+		int[] right = other.toRuns();
+		RunBuilder runs = new RunBuilder(left.length + right.length);
+		int i = 0;
+		int j = 0;
+		while (i < left.length && j < right.length) {
+			int start = Math.max(left[i], right[j]);
+			int end = Math.min(left[i + 1], right[j + 1]);
+			if (start <= end) {
+				runs.add(start, end);
+			}
+			// the run ending first cannot overlap anything further on the other side
+			if (left[i + 1] < right[j + 1]) {
+				i += 2;
+			} else {
+				j += 2;
+			}
+		}
+		return fromRuns(runs.runs, runs.length);
+	}
+
+	/**
+	 * @return the values in this container but not in the other one, or null if there are none
+	 */
+	ZipPlus4Container difference(ZipPlus4Container other) {
+		if (this instanceof BitmapContainer && other instanceof BitmapContainer) {
+			long[] words = ((BitmapContainer) this).words.clone();
+			long[] otherWords = ((BitmapContainer) other).words;
+			for (int i = 0; i < BITMAP_WORDS; i++) {
+				words[i] &= ~otherWords[i];
+			}
+			return fromWords(words);
+		}
+		int[] left = toRuns();
+		int[] right = other.toRuns();
+		RunBuilder runs = new RunBuilder(left.length + right.length);
+		int j = 0;
+		for (int i = 0; i < left.length; i += 2) {
+			int start = left[i];
+			int end = left[i + 1];
+			while (j < right.length && right[j + 1] < start) {
+				j += 2;
+			}
+			// cut every removed run overlapping this one out of it, keeping the pieces in between
+			int k = j;
+			while (k < right.length && right[k] <= end) {
+				if (right[k] > start) {
+					runs.add(start, right[k] - 1);
+				}
+				start = Math.max(start, right[k + 1] + 1);
+				k += 2;
+			}
+			if (start <= end) {
+				runs.add(start, end);
+			}
+		}
+		return fromRuns(runs.runs, runs.length);
+	}
+
+	/**
+	 * Builds the smallest container holding the runs.
+	 *
+	 * @param runs
+	 *            inclusive start and end of each run, sorted and with no two runs overlapping
+	 * @param length
+	 *            the number of ints used in the array
+	 * @return the container, or null if there are no runs
+	 */
+	static ZipPlus4Container fromRuns(int[] runs, int length) {
+		if (length == 0) {
+			return null;
+		}
+		int cardinality = 0;
+		for (int i = 0; i < length; i += 2) {
+			cardinality += runs[i + 1] - runs[i] + 1;
+		}
+
+		if (length * 2 <= Math.min(cardinality * 2, BITMAP_BYTES)) {
+			char[] runBounds = new char[length];
+			for (int i = 0; i < length; i++) {
+				runBounds[i] = (char) runs[i];
+			}
+			return new RunContainer(runBounds, cardinality);
+		}
+		if (cardinality <= ARRAY_MAXIMUM_CARDINALITY) {
+			char[] values = new char[cardinality];
+			int index = 0;
+			for (int i = 0; i < length; i += 2) {
+				for (int value = runs[i]; value <= runs[i + 1]; value++) {
+					values[index++] = (char) value;
+				}
+			}
+			return new ArrayContainer(values);
+		}
+		long[] words = new long[BITMAP_WORDS];
+		for (int i = 0; i < length; i += 2) {
+			setRange(words, runs[i], runs[i + 1]);
+		}
+		return new BitmapContainer(words, cardinality);
+	}
+
+	private static ZipPlus4Container fromWords(long[] words) {
+		int cardinality = 0;
+		for (long word : words) {
+			cardinality += Long.bitCount(word);
+		}
+		if (cardinality == 0) {
+			return null;
+		}
+		if (cardinality <= ARRAY_MAXIMUM_CARDINALITY || countRuns(words) * 4 <= BITMAP_BYTES) {
+			int[] runs = runsOf(words);
+			return fromRuns(runs, runs.length);
+		}
+		return new BitmapContainer(words, cardinality);
+	}
+
+	private static int countRuns(long[] words) {
+		int runCount = 0;
+		long previousWord = 0;
+		for (long word : words) {
+			// a run starts at every set bit whose previous bit, possibly the last bit of the previous word, is clear
+			runCount += Long.bitCount(word & ~((word << 1) | (previousWord >>> 63)));
+			previousWord = word;
+		}
+		return runCount;
+	}
+
+	private static int[] runsOf(long[] words) {
+		BitSet values = BitSet.valueOf(words);
+		int[] runs = new int[countRuns(words) * 2];
+		int index = 0;
+		for (int start = values.nextSetBit(0); start >= 0; start = values.nextSetBit(start)) {
+			int end = values.nextClearBit(start);
+			runs[index++] = start;
+			runs[index++] = end - 1;
+			start = end;
+		}
+		return runs;
+	}
+
+	private static void setRange(long[] words, int low, int high) {
+		int firstWord = low >>> 6;
+		int lastWord = high >>> 6;
+		long firstMask = -1L << low;
+		long lastMask = -1L >>> (63 - (high & 63));
+		if (firstWord == lastWord) {
+			words[firstWord] |= firstMask & lastMask;
+		} else {
+			words[firstWord] |= firstMask;
+			Arrays.fill(words, firstWord + 1, lastWord, -1L);
+			words[lastWord] |= lastMask;
+		}
+	}
+
+	/**
+	 * Growable list of runs appended in order of their start, joining a run with the previous one when they overlap or
+	 * sit next to each other.
+	 */
+	static final class RunBuilder {
+
+		int[] runs;
+
+		int length;
+
+		RunBuilder(int capacity) {
+			runs = new int[Math.max(capacity, 2)];
+		}
+
+		void add(int start, int end) {
+			if (length > 0 && start <= runs[length - 1] + 1) {
+				runs[length - 1] = Math.max(runs[length - 1], end);
+				return;
+			}
+			if (length == runs.length) {
+				runs = Arrays.copyOf(runs, length * 2);
+			}
+			runs[length++] = start;
+			runs[length++] = end;
+		}
+
+	}
+
+	static final class ArrayContainer extends ZipPlus4Container {
+
+		private final char[] values;
+
+		private ArrayContainer(char[] values) {
+			this.values = values;
+		}
+
+		@Override
+		boolean contains(int value) {
+			return Arrays.binarySearch(values, (char) value) >= 0;
+		}
+
+		@Override
+		int cardinality() {
+			return values.length;
+		}
+
+		@Override
+		int sizeInBytes() {
+			return values.length * 2;
+		}
+
+		@Override
+		int[] toRuns() {
+			RunBuilder runs = new RunBuilder(16);
+			for (char value : values) {
+				runs.add(value, value);
+			}
+			return Arrays.copyOf(runs.runs, runs.length);
+		}
+
+	}
+
+	static final class BitmapContainer extends ZipPlus4Container {
+
+		private final long[] words;
+
+		private final int cardinality;
+
+		private BitmapContainer(long[] words, int cardinality) {
+			this.words = words;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(int value) {
+			return (words[value >>> 6] & (1L << value)) != 0;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		int sizeInBytes() {
+			return BITMAP_BYTES;
+		}
+
+		@Override
+		int[] toRuns() {
+			return runsOf(words);
+		}
+
+	}
+
+	static final class RunContainer extends ZipPlus4Container {
+
+		private final char[] runs;
+
+		private final int cardinality;
+
+		private RunContainer(char[] runs, int cardinality) {
+			this.runs = runs;
+			this.cardinality = cardinality;
+		}
+
+		@Override
+		boolean contains(int value) {
+			// binary search over the run starts, held at the even positions
+			int low = 0;
+			int high = runs.length / 2 - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				if (runs[middle * 2] <= value) {
+					if (value <= runs[middle * 2 + 1]) {
+						return true;
+					}
+					low = middle + 1;
+				} else {
+					high = middle - 1;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		int cardinality() {
+			return cardinality;
+		}
+
+		@Override
+		int sizeInBytes() {
+			return runs.length * 2;
+		}
+
+		@Override
+		int[] toRuns() {
+			int[] runBounds = new int[runs.length];
+			for (int i = 0; i < runs.length; i++) {
+				runBounds[i] = runs[i];
+			}
+			return runBounds;
+		}
+
+	}
+
+}
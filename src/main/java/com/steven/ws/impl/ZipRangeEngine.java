@@ -0,0 +1,467 @@
+package com.steven.ws.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Primitive range engine backing {@link com.steven.ws.impl.WsCodeChallengeManager}.
+ *
+ * <pre>
+ * Each range is packed into a single long value:
+ * 	- the lower bound is stored in the upper 32 bits
+ * 	- the upper bound is stored in the lower 32 bits
+ *
+ * Sorting the packed values therefore orders ranges by lower bound and then by upper bound, without boxing or String
+ * comparisons. Ranges are parsed once on the way in and only turned back into Strings on the way out.
+ * </pre>
+ */
+public final class ZipRangeEngine {
+
+	private static final long LOWER_BITS_MASK = 0xFFFFFFFFL;
+
+	private static final int ZIP_CODE_LENGTH = 5;
+
+	/**
+	 * Number of distinct 5 digit zip codes, 00000 to 99999.
+	 */
+	public static final int ZIP_CODE_UNIVERSE = 100000;
+
+	/**
+	 * Below this many ranges a comparison sort is cheaper than clearing and scanning the radix buckets.
+	 */
+	private static final int RADIX_SORT_THRESHOLD = 256;
+
+	private static final int RADIX_BITS = 9;
+
+	private static final int RADIX_BUCKETS = 1 << RADIX_BITS;
+
+	private static final int RADIX_MASK = RADIX_BUCKETS - 1;
+
+	private ZipRangeEngine() {
+	}
+
+	/**
+	 * Packs the two bounds of a range into a single long value. The bounds are oriented so the lower value is always
+	 * stored as the lower bound.
+	 *
+	 * @param first
+	 *            the first bound of the range
+	 * @param second
+	 *            the second bound of the range
+	 * @return the packed range
+	 */
+	public static long pack(int first, int second) {
+		int low = Math.min(first, second);
+		int high = Math.max(first, second);
+		return ((long) low << 32) | (high & LOWER_BITS_MASK);
+	}
+
+	/**
+	 * @param range
+	 *            the packed range
+	 * @return the lower bound of the packed range
+	 */
+	public static int low(long range) {
+		return (int) (range >>> 32);
+	}
+
+	/**
+	 * @param range
+	 *            the packed range
+	 * @return the upper bound of the packed range
+	 */
+	public static int high(long range) {
+		return (int) range;
+	}
+
+	/**
+	 * Sorts the first {@code length} packed ranges and merges them in place with a single linear sweep. Duplicate,
+	 * contained and overlapping ranges are collapsed; ranges that only sit next to each other (e.g. [94000,94133] and
+	 * [94134,94299]) are kept apart.
+	 *
+	 * @param ranges
+	 *            the packed ranges, modified in place
+	 * @param length
+	 *            the number of ranges in the array to consider
+	 * @return the number of merged ranges, stored at the start of the array
+	 */
+	public static int merge(long[] ranges, int length) {
+		sortByLowerBound(ranges, length);
+		return sweep(ranges, length);
+	}
+
+	/**
+	 * Sorts the first {@code length} packed ranges by lower bound, which is all the sweep needs. Small inputs use a
+	 * comparison sort; larger inputs use a two pass LSD radix sort on the 17 bit lower bound, giving a guaranteed linear
+	 * bound for any input order.
+	 *
+	 * @param ranges
+	 *            the packed ranges, modified in place
+	 * @param length
+	 *            the number of ranges in the array to sort
+	 */
+	public static void sortByLowerBound(long[] ranges, int length) {
+		if (length < RADIX_SORT_THRESHOLD) {
+			Arrays.sort(ranges, 0, length);
+			return;
+		}
+
+		long[] buffer = new long[length];
+		radixPass(ranges, buffer, length, 0);
+		radixPass(buffer, ranges, length, RADIX_BITS);
+	}
+
+	/**
+	 * Stable counting sort pass over one radix digit of the lower bound.
+	 */
+	private static void radixPass(long[] source, long[] target, int length, int shift) {
+		int[] offsets = new int[RADIX_BUCKETS + 1];
+		for (int i = 0; i < length; i++) {
+			offsets[((low(source[i]) >>> shift) & RADIX_MASK) + 1]++;
+		}
+		for (int i = 0; i < RADIX_BUCKETS; i++) {
+			offsets[i + 1] += offsets[i];
+		}
+		for (int i = 0; i < length; i++) {
+			target[offsets[(low(source[i]) >>> shift) & RADIX_MASK]++] = source[i];
+		}
+	}
+
+	/**
+	 * Merges the first {@code length} packed ranges in place. Ranges are expected to already be sorted by lower bound.
+	 *
+	 * @param sortedRanges
+	 *            the sorted packed ranges, modified in place
+	 * @param length
+	 *            the number of ranges in the array to consider
+	 * @return the number of merged ranges, stored at the start of the array
+	 */
+	public static int sweep(long[] sortedRanges, int length) {
+		if (length == 0) {
+			return 0;
+		}
+
+		int count = 0;
+		int currentLow = low(sortedRanges[0]);
+		int currentHigh = high(sortedRanges[0]);
+		for (int i = 1; i < length; i++) {
+			int nextLow = low(sortedRanges[i]);
+			int nextHigh = high(sortedRanges[i]);
+			if (nextLow <= currentHigh) {
+				currentHigh = Math.max(currentHigh, nextHigh);
+			} else {
+				sortedRanges[count++] = pack(currentLow, currentHigh);
+				currentLow = nextLow;
+				currentHigh = nextHigh;
+			}
+		}
+		sortedRanges[count++] = pack(currentLow, currentHigh);
+
+		return count;
+	}
+
+	/**
+	 * Combines two sets of merged packed ranges with a single two pointer pass. Both inputs must be sorted by lower bound
+	 * and free of overlaps, as returned by {@link com.steven.ws.impl.ZipRangeEngine#merge(long[], int)}; the result
+	 * has the same properties.
+	 *
+	 * @param left
+	 *            the first set of merged ranges
+	 * @param right
+	 *            the second set of merged ranges
+	 * @return the merged ranges of both inputs
+	 */
+	public static long[] union(long[] left, long[] right) {
+		long[] merged = new long[left.length + right.length];
+		int count = 0;
+		int leftIndex = 0;
+		int rightIndex = 0;
+		while (leftIndex < left.length || rightIndex < right.length) {
+			long range;
+			if (rightIndex == right.length || (leftIndex < left.length && left[leftIndex] <= right[rightIndex])) {
+				range = left[leftIndex++];
+			} else {
+				range = right[rightIndex++];
+			}
+
+			if (count > 0 && low(range) <= high(merged[count - 1])) {
+				merged[count - 1] = pack(low(merged[count - 1]), Math.max(high(merged[count - 1]), high(range)));
+			} else {
+				merged[count++] = range;
+			}
+		}
+		return Arrays.copyOf(merged, count);
+	}
+
+	/**
+	 * Intersects two sets of merged packed ranges with a single two pointer pass. Both inputs must be sorted by lower
+	 * bound and free of overlaps; the result has the same properties.
+	 *
+	 * @param left
+	 *            the first set of merged ranges
+	 * @param right
+	 *            the second set of merged ranges
+	 * @return the zip codes covered by both inputs, as merged ranges
+	 */
+	public static long[] intersection(long[] left, long[] right) {
+		long[] intersected = new long[left.length + right.length];
+		int count = 0;
+		int leftIndex = 0;
+		int rightIndex = 0;
+		while (leftIndex < left.length && rightIndex < right.length) {
+			int low = Math.max(low(left[leftIndex]), low(right[rightIndex]));
+			int high = Math.min(high(left[leftIndex]), high(right[rightIndex]));
+			if (low <= high) {
+				intersected[count++] = pack(low, high);
+			}
+
+			// the range ending first cannot overlap anything further along the other input
+			if (high(left[leftIndex]) < high(right[rightIndex])) {
+				leftIndex++;
+			} else {
+				rightIndex++;
+			}
+		}
+		return Arrays.copyOf(intersected, count);
+	}
+
+	/**
+	 * Removes the zip codes of one set of merged packed ranges from another with a single two pointer pass. Both
+	 * inputs must be sorted by lower bound and free of overlaps; the result has the same properties.
+	 *
+	 * @param left
+	 *            the merged ranges to remove zip codes from
+	 * @param right
+	 *            the merged ranges holding the zip codes to remove
+	 * @return the zip codes covered by left but not by right, as merged ranges
+	 */
+	public static long[] difference(long[] left, long[] right) {
+		// every range of right can split at most one range of left in two
+		long[] remaining = new long[left.length + right.length];
+		int count = 0;
+		int rightIndex = 0;
+		for (long range : left) {
+			int current = low(range);
+			int high = high(range);
+			while (rightIndex < right.length && high(right[rightIndex]) < current) {
+				rightIndex++;
+			}
+
+			// a range of right reaching past this range is kept for the next one, so rightIndex stays put
+			for (int i = rightIndex; i < right.length && low(right[i]) <= high && current <= high; i++) {
+				if (low(right[i]) > current) {
+					remaining[count++] = pack(current, low(right[i]) - 1);
+				}
+				current = Math.max(current, high(right[i]) + 1);
+			}
+			if (current <= high) {
+				remaining[count++] = pack(current, high);
+			}
+		}
+		return Arrays.copyOf(remaining, count);
+	}
+
+	/**
+	 * Inverts merged packed ranges within the zip code universe, 00000 to 99999, with a single pass. The input must be
+	 * sorted by lower bound and free of overlaps; the result has the same properties.
+	 *
+	 * @param mergedRanges
+	 *            the merged ranges to invert
+	 * @return the zip codes not covered by the input, as merged ranges
+	 */
+	public static long[] complement(long[] mergedRanges) {
+		long[] gaps = new long[mergedRanges.length + 1];
+		int count = 0;
+		int current = 0;
+		for (long range : mergedRanges) {
+			if (low(range) > current) {
+				gaps[count++] = pack(current, low(range) - 1);
+			}
+			current = Math.max(current, high(range) + 1);
+		}
+		if (current < ZIP_CODE_UNIVERSE) {
+			gaps[count++] = pack(current, ZIP_CODE_UNIVERSE - 1);
+		}
+		return Arrays.copyOf(gaps, count);
+	}
+
+	/**
+	 * Checks many zip codes against merged ranges in one pass. The zip codes are sorted once, tagged with their input
+	 * position, and then walked alongside the ranges in a single merge join, for O(m log m + n) overall.
+	 *
+	 * @param mergedRanges
+	 *            the merged packed ranges, sorted by lower bound and free of overlaps
+	 * @param zipCodes
+	 *            the zip codes to check
+	 * @return for each zip code, in input order, true if it falls inside one of the ranges
+	 */
+	public static boolean[] containsAll(long[] mergedRanges, int[] zipCodes) {
+		long[] probes = new long[zipCodes.length];
+		for (int i = 0; i < zipCodes.length; i++) {
+			probes[i] = ((long) zipCodes[i] << 32) | i;
+		}
+		Arrays.sort(probes);
+
+		boolean[] restricted = new boolean[zipCodes.length];
+		int rangeIndex = 0;
+		for (long probe : probes) {
+			int zipCode = (int) (probe >>> 32);
+			while (rangeIndex < mergedRanges.length && high(mergedRanges[rangeIndex]) < zipCode) {
+				rangeIndex++;
+			}
+			if (rangeIndex == mergedRanges.length) {
+				break;
+			}
+			restricted[(int) probe] = low(mergedRanges[rangeIndex]) <= zipCode;
+		}
+		return restricted;
+	}
+
+	/**
+	 * Merges several sources of packed ranges that are each already sorted by lower bound, without sorting them again.
+	 * A binary heap holding the head of every source yields the ranges in global order, and each one is fed straight
+	 * into the merging sweep. Cost is O(N log k) for N ranges across k sources.
+	 *
+	 * @param sortedSources
+	 *            the packed ranges of each source, each sorted by lower bound
+	 * @return the merged packed ranges, sorted by lower bound
+	 */
+	public static long[] kWayMerge(long[][] sortedSources) {
+		int totalLength = 0;
+		int[] heap = new int[sortedSources.length];
+		int heapSize = 0;
+		for (int source = 0; source < sortedSources.length; source++) {
+			totalLength += sortedSources[source].length;
+			if (sortedSources[source].length > 0) {
+				heap[heapSize++] = source;
+			}
+		}
+
+		int[] positions = new int[sortedSources.length];
+		for (int i = heapSize / 2 - 1; i >= 0; i--) {
+			siftDown(heap, heapSize, i, sortedSources, positions);
+		}
+
+		long[] merged = new long[totalLength];
+		int count = 0;
+		while (heapSize > 0) {
+			int source = heap[0];
+			long range = sortedSources[source][positions[source]++];
+
+			if (count > 0 && low(range) <= high(merged[count - 1])) {
+				merged[count - 1] = pack(low(merged[count - 1]), Math.max(high(merged[count - 1]), high(range)));
+			} else {
+				merged[count++] = range;
+			}
+
+			if (positions[source] == sortedSources[source].length) {
+				heap[0] = heap[--heapSize];
+			}
+			if (heapSize > 0) {
+				siftDown(heap, heapSize, 0, sortedSources, positions);
+			}
+		}
+
+		return Arrays.copyOf(merged, count);
+	}
+
+	private static void siftDown(int[] heap, int heapSize, int index, long[][] sources, int[] positions) {
+		int source = heap[index];
+		long range = sources[source][positions[source]];
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= heapSize) {
+				break;
+			}
+			long childRange = sources[heap[child]][positions[heap[child]]];
+			if (child + 1 < heapSize) {
+				long siblingRange = sources[heap[child + 1]][positions[heap[child + 1]]];
+				if (siblingRange < childRange) {
+					child++;
+					childRange = siblingRange;
+				}
+			}
+			if (range <= childRange) {
+				break;
+			}
+			heap[index] = heap[child];
+			index = child;
+		}
+		heap[index] = source;
+	}
+
+	/**
+	 * Merges the first {@code length} packed ranges in place by marking each of them in a bit set covering the whole
+	 * zip code universe, then reading the set runs back in order. Cost is linear in the number of ranges plus the
+	 * number of words in the bit sets; no sort is performed.
+	 *
+	 * <pre>
+	 * A second bit set marks, for each zip code, whether a range joins it to the next zip code. Runs are cut where no
+	 * range does, so ranges that only sit next to each other (e.g. [94000,94133] and [94134,94299]) are kept apart,
+	 * the same as {@link com.steven.ws.impl.ZipRangeEngine#merge(long[], int)}.
+	 * </pre>
+	 *
+	 * @param ranges
+	 *            the packed ranges, modified in place
+	 * @param length
+	 *            the number of ranges in the array to consider
+	 * @return the number of merged ranges, stored at the start of the array
+	 */
+	public static int bitSetMerge(long[] ranges, int length) {
+		BitSet zipCodes = new BitSet(ZIP_CODE_UNIVERSE);
+		BitSet joinedToNext = new BitSet(ZIP_CODE_UNIVERSE);
+		for (int i = 0; i < length; i++) {
+			// BitSet fills whole words at a time for everything between the first and last word of the range
+			zipCodes.set(low(ranges[i]), high(ranges[i]) + 1);
+			joinedToNext.set(low(ranges[i]), high(ranges[i]));
+		}
+
+		int count = 0;
+		int runStart = zipCodes.nextSetBit(0);
+		while (runStart >= 0) {
+			// the last zip code of a run is never joined to the next one, so this stays inside the run
+			int runEnd = joinedToNext.nextClearBit(runStart);
+			ranges[count++] = pack(runStart, runEnd);
+			runStart = zipCodes.nextSetBit(runEnd + 1);
+		}
+
+		return count;
+	}
+
+	/**
+	 * Converts the first {@code length} packed ranges back into the String list format returned by the manager.
+	 *
+	 * @param ranges
+	 *            the packed ranges
+	 * @param length
+	 *            the number of ranges in the array to convert
+	 * @return the ranges as a multidimensional list of zero padded zip codes
+	 */
+	public static List<List<String>> toStringRanges(long[] ranges, int length) {
+		List<List<String>> returnList = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			returnList.add(Arrays.asList(formatZipCode(low(ranges[i])), formatZipCode(high(ranges[i]))));
+		}
+		return returnList;
+	}
+
+	/**
+	 * Formats a zip code as a zero padded 5 digit String.
+	 *
+	 * @param zipCode
+	 *            the zip code value
+	 * @return the zip code as a 5 digit String
+	 */
+	public static String formatZipCode(int zipCode) {
+		char[] digits = new char[ZIP_CODE_LENGTH];
+		int value = zipCode;
+		for (int i = ZIP_CODE_LENGTH - 1; i >= 0; i--) {
+			digits[i] = (char) ('0' + value % 10);
+			value /= 10;
+		}
+		return new String(digits);
+	}
+
+}
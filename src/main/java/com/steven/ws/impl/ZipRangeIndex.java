@@ -0,0 +1,89 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+
+/**
+ * Immutable lookup index over a merged set of zip code ranges. Range bounds are stored in two sorted primitive arrays
+ * so membership of a single zip code is answered with one binary search.
+ */
+public final class ZipRangeIndex {
+
+	private final int[] starts;
+
+	private final int[] ends;
+
+	private ZipRangeIndex(int[] starts, int[] ends) {
+		this.starts = starts;
+		this.ends = ends;
+	}
+
+	/**
+	 * Builds an index from merged packed ranges, @see {@link com.steven.ws.impl.ZipRangeEngine}. Ranges are expected to
+	 * be sorted by lower bound and not to overlap.
+	 *
+	 * @param mergedRanges
+	 *            the merged packed ranges
+	 * @param length
+	 *            the number of ranges in the array to index
+	 * @return the index over the ranges
+	 */
+	public static ZipRangeIndex fromMergedRanges(long[] mergedRanges, int length) {
+		int[] starts = new int[length];
+		int[] ends = new int[length];
+		for (int i = 0; i < length; i++) {
+			starts[i] = ZipRangeEngine.low(mergedRanges[i]);
+			ends[i] = ZipRangeEngine.high(mergedRanges[i]);
+		}
+		return new ZipRangeIndex(starts, ends);
+	}
+
+	/**
+	 * Builds an index over bounds that are already sorted and do not overlap, keeping the arrays as they are.
+	 *
+	 * @param starts
+	 *            the lower bound of each range, in increasing order
+	 * @param ends
+	 *            the upper bound of each range, at the same position as its lower bound
+	 * @return the index over the ranges
+	 */
+	static ZipRangeIndex fromSortedBounds(int[] starts, int[] ends) {
+		return new ZipRangeIndex(starts, ends);
+	}
+
+	/**
+	 * Checks if a zip code falls inside any of the indexed ranges, in O(log n).
+	 *
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code is inside one of the ranges, otherwise false
+	 */
+	public boolean contains(int zipCode) {
+		int position = Arrays.binarySearch(starts, zipCode);
+		if (position >= 0) {
+			return true;
+		}
+
+		// the range that could contain the zip code is the one starting just before the insertion point
+		int candidate = -position - 2;
+		return candidate >= 0 && zipCode <= ends[candidate];
+	}
+
+	/**
+	 * @return the number of ranges in the index
+	 */
+	public int size() {
+		return starts.length;
+	}
+
+	/**
+	 * @return the indexed ranges packed as described in {@link com.steven.ws.impl.ZipRangeEngine}
+	 */
+	public long[] toPackedRanges() {
+		long[] ranges = new long[starts.length];
+		for (int i = 0; i < starts.length; i++) {
+			ranges[i] = ZipRangeEngine.pack(starts[i], ends[i]);
+		}
+		return ranges;
+	}
+
+}
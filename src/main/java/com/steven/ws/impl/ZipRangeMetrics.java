@@ -0,0 +1,80 @@
+package com.steven.ws.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Micrometer instrumentation of the {@link com.steven.ws.impl.WsCodeChallengeManager} pipeline. Publishes a timer per
+ * pipeline phase, distributions of input and output range counts and the compression ratio between them.
+ */
+@Component
+public class ZipRangeMetrics {
+
+	/**
+	 * Phases of the manager pipeline, published as the {@code phase} tag of {@code ws.zip.range.phase}.
+	 */
+	public enum Phase {
+		NORMALIZE, SORT, MERGE, FORMAT;
+
+		private final String tagValue = name().toLowerCase();
+	}
+
+	private final Timer[] phaseTimers = new Timer[Phase.values().length];
+
+	private final DistributionSummary inputRanges;
+
+	private final DistributionSummary outputRanges;
+
+	private final DistributionSummary compressionRatio;
+
+	public ZipRangeMetrics(MeterRegistry meterRegistry) {
+		for (Phase phase : Phase.values()) {
+			phaseTimers[phase.ordinal()] = Timer.builder("ws.zip.range.phase")
+					.description("Time spent in each phase of the range merge pipeline").tag("phase", phase.tagValue)
+					.register(meterRegistry);
+		}
+		inputRanges = DistributionSummary.builder("ws.zip.range.input.ranges")
+				.description("Number of ranges received per merge").baseUnit("ranges").publishPercentileHistogram()
+				.register(meterRegistry);
+		outputRanges = DistributionSummary.builder("ws.zip.range.output.ranges")
+				.description("Number of ranges returned per merge").baseUnit("ranges").publishPercentileHistogram()
+				.register(meterRegistry);
+		compressionRatio = DistributionSummary.builder("ws.zip.range.compression.ratio")
+				.description("Input ranges per output range").register(meterRegistry);
+	}
+
+	/**
+	 * Records the phase duration, and adds it to the {@link com.steven.ws.impl.ZipRangePhaseTrace} of the current
+	 * thread if one is started.
+	 *
+	 * @param phase
+	 *            the pipeline phase
+	 * @param startNanos
+	 *            the {@link System#nanoTime()} value taken when the phase started
+	 */
+	public void recordPhase(Phase phase, long startNanos) {
+		long nanos = System.nanoTime() - startNanos;
+		phaseTimers[phase.ordinal()].record(nanos, TimeUnit.NANOSECONDS);
+		ZipRangePhaseTrace.record(phase, nanos);
+	}
+
+	/**
+	 * @param inputCount
+	 *            the number of ranges received
+	 * @param outputCount
+	 *            the number of merged ranges
+	 */
+	public void recordRangeCounts(int inputCount, int outputCount) {
+		inputRanges.record(inputCount);
+		outputRanges.record(outputCount);
+		if (outputCount > 0) {
+			compressionRatio.record((double) inputCount / outputCount);
+		}
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+
+import com.steven.ws.impl.ZipRangeMetrics.Phase;
+
+/**
+ * Per request breakdown of the time spent in each pipeline phase, @see {@link com.steven.ws.impl.ZipRangeMetrics}.
+ * Phases are only accumulated while a trace is started on the current thread, so untraced requests pay a single
+ * thread local lookup per phase.
+ *
+ * <pre>
+ * A trace also keeps a hash of the packed input and output of every merge, so traced requests can be told apart
+ * without hashing their String ranges.
+ * </pre>
+ */
+public final class ZipRangePhaseTrace {
+
+	private static final ThreadLocal<ZipRangePhaseTrace> CURRENT = new ThreadLocal<>();
+
+	private final long[] phaseNanos = new long[Phase.values().length];
+
+	private final StringBuilder mergeHashes = new StringBuilder();
+
+	private ZipRangePhaseTrace() {
+	}
+
+	/**
+	 * Starts accumulating phase durations on the current thread, until {@link #stop()} is called.
+	 *
+	 * @return the started trace
+	 */
+	public static ZipRangePhaseTrace start() {
+		ZipRangePhaseTrace phaseTrace = new ZipRangePhaseTrace();
+		CURRENT.set(phaseTrace);
+		return phaseTrace;
+	}
+
+	public void stop() {
+		CURRENT.remove();
+	}
+
+	static void record(Phase phase, long nanos) {
+		ZipRangePhaseTrace phaseTrace = CURRENT.get();
+		if (phaseTrace != null) {
+			phaseTrace.phaseNanos[phase.ordinal()] += nanos;
+		}
+	}
+
+	static void recordMerge(long[] normalizedRanges, long[] mergedRanges) {
+		ZipRangePhaseTrace phaseTrace = CURRENT.get();
+		if (phaseTrace != null) {
+			phaseTrace.mergeHashes.append(phaseTrace.mergeHashes.length() == 0 ? "" : " ")
+					.append(String.format("#%08x->#%08x", Arrays.hashCode(normalizedRanges),
+							Arrays.hashCode(mergedRanges)));
+		}
+	}
+
+	/**
+	 * @param phase
+	 *            the pipeline phase
+	 * @return the accumulated time spent in the phase, in nanoseconds
+	 */
+	public long getPhaseNanos(Phase phase) {
+		return phaseNanos[phase.ordinal()];
+	}
+
+	/**
+	 * @return the hashes of the packed input and output of each merge, e.g. #3f2a91c0->#0b7d51e2, or none
+	 */
+	public String getMergeHashes() {
+		return mergeHashes.length() == 0 ? "none" : mergeHashes.toString();
+	}
+
+	/**
+	 * @return the phases that took any time with their duration in milliseconds, e.g. normalize=0.042 merge=1.310
+	 */
+	@Override
+	public String toString() {
+		StringBuilder phases = new StringBuilder();
+		for (Phase phase : Phase.values()) {
+			long nanos = phaseNanos[phase.ordinal()];
+			if (nanos > 0) {
+				phases.append(phases.length() == 0 ? "" : " ").append(phase.name().toLowerCase()).append('=')
+						.append(String.format("%.3f", nanos / 1e6));
+			}
+		}
+		return phases.length() == 0 ? "none" : phases.toString();
+	}
+
+}
@@ -0,0 +1,140 @@
+package com.steven.ws.impl;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Server side registry of named restriction sets. Each set is held as an
+ * {@link com.steven.ws.impl.IncrementalRangeSet} backed by a ConcurrentSkipListMap, so ranges from several sources can
+ * be added over time without recomputing the whole set.
+ *
+ * <pre>
+ * Reads never lock and can run while updates are applied. Updates to the same set are applied one at a time.
+ * </pre>
+ */
+@Component
+public class ZipRangeRegistry {
+
+	private final ConcurrentMap<String, IncrementalRangeSet> restrictionSets = new ConcurrentHashMap<>();
+
+	/**
+	 * @return the names of all registered restriction sets, in alphabetical order
+	 */
+	public Set<String> getRestrictionSetNames() {
+		return new TreeSet<>(restrictionSets.keySet());
+	}
+
+	/**
+	 * @return the merged packed ranges of every registered restriction set, by name in alphabetical order
+	 */
+	public Map<String, long[]> getRestrictionSets() {
+		Map<String, long[]> sets = new TreeMap<>();
+		for (Map.Entry<String, IncrementalRangeSet> restrictionSet : restrictionSets.entrySet()) {
+			sets.put(restrictionSet.getKey(), restrictionSet.getValue().toPackedRanges());
+		}
+		return sets;
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return true if a restriction set is registered with the name
+	 */
+	public boolean containsRestrictionSet(String name) {
+		return restrictionSets.containsKey(name);
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return the merged packed ranges of the restriction set, or null if no set is registered with the name
+	 */
+	public long[] getRestrictionSet(String name) {
+		IncrementalRangeSet restrictionSet = restrictionSets.get(name);
+		return restrictionSet == null ? null : restrictionSet.toPackedRanges();
+	}
+
+	/**
+	 * Checks if a zip code is restricted by a registered set.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param zipCode
+	 *            the zip code to check
+	 * @return true if the zip code is in the restriction set, false if it is not or no set is registered with the name
+	 */
+	public boolean isZipCodeRestricted(String name, int zipCode) {
+		IncrementalRangeSet restrictionSet = restrictionSets.get(name);
+		return restrictionSet != null && restrictionSet.contains(zipCode);
+	}
+
+	/**
+	 * Adds ranges to a restriction set, creating the set if it is not registered yet. Each range is merged into the set
+	 * in O(log n + k). The ranges are added inside the map's compute for the name, so they always go into the set
+	 * registered at that moment and a concurrent replace or remove of the same set waits for them.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param packedRanges
+	 *            the packed ranges to add, @see {@link com.steven.ws.impl.ZipRangeEngine}
+	 */
+	public void addRanges(String name, long[] packedRanges) {
+		restrictionSets.compute(name, (key, restrictionSet) -> {
+			IncrementalRangeSet updatedSet = restrictionSet == null ? newRestrictionSet() : restrictionSet;
+			updatedSet.addAll(packedRanges, packedRanges.length);
+			return updatedSet;
+		});
+	}
+
+	/**
+	 * Replaces the ranges of a restriction set. The ranges are merged off to the side into an immutable
+	 * {@link com.steven.ws.impl.ZipRangeIndex} that is swapped in, so readers see either the old or the new ranges and
+	 * lookups are a binary search until ranges are next added to the set.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param packedRanges
+	 *            the packed ranges of the restriction set, not modified, @see
+	 *            {@link com.steven.ws.impl.ZipRangeEngine}
+	 */
+	public void replaceRanges(String name, long[] packedRanges) {
+		long[] mergedRanges = packedRanges.clone();
+		restoreRanges(name, ZipRangeIndex.fromMergedRanges(mergedRanges,
+				ZipRangeEngine.merge(mergedRanges, mergedRanges.length)));
+	}
+
+	/**
+	 * Registers a restriction set over ranges that are already merged, e.g. restored from a snapshot, replacing any set
+	 * registered with the name. The set answers reads from the index as it is, without rebuilding anything, and is
+	 * only copied into a skip list when ranges are first added to it.
+	 *
+	 * @param name
+	 *            the name of the restriction set
+	 * @param mergedRanges
+	 *            the merged ranges of the restriction set
+	 */
+	public void restoreRanges(String name, ZipRangeIndex mergedRanges) {
+		restrictionSets.put(name, new IncrementalRangeSet(new ConcurrentSkipListMap<>(), mergedRanges));
+	}
+
+	/**
+	 * @param name
+	 *            the name of the restriction set
+	 * @return true if a set was registered with the name and removed, otherwise false
+	 */
+	public boolean removeRestrictionSet(String name) {
+		return restrictionSets.remove(name) != null;
+	}
+
+	private IncrementalRangeSet newRestrictionSet() {
+		return new IncrementalRangeSet(new ConcurrentSkipListMap<>());
+	}
+
+}
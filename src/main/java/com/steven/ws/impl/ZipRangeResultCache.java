@@ -0,0 +1,190 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+/**
+ * Least recently used cache of merge results used by {@link com.steven.ws.impl.WsCodeChallengeManager}. Entries are
+ * keyed by the normalized input ranges (cleaned, validated, oriented and packed, in input order), so the same
+ * restrictions sent with different formatting share an entry. Every merge mode produces the same result, so the
+ * mode is not part of the key. The cache is bounded both by entry count and by the
+ * approximate memory weight of the packed keys and results.
+ */
+@Component
+public class ZipRangeResultCache implements MeterBinder {
+
+	/**
+	 * Approximate fixed cost of an entry: map node, key object and the two array headers.
+	 */
+	private static final long ENTRY_OVERHEAD_BYTES = 128;
+
+	private final int maximumEntries;
+
+	private final long maximumWeightBytes;
+
+	private final LinkedHashMap<CacheKey, long[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+	private long weightBytes;
+
+	private final LongAdder hitCount = new LongAdder();
+
+	private final LongAdder missCount = new LongAdder();
+
+	private final LongAdder evictionCount = new LongAdder();
+
+	public ZipRangeResultCache(@Value("${ws.cache.max-entries:1000}") int maximumEntries,
+			@Value("${ws.cache.max-weight-bytes:67108864}") long maximumWeightBytes) {
+		this.maximumEntries = maximumEntries;
+		this.maximumWeightBytes = maximumWeightBytes;
+	}
+
+	/**
+	 * Looks up the merged ranges for normalized input ranges.
+	 *
+	 * @param normalizedRanges
+	 *            the packed input ranges in input order, not modified or retained
+	 * @return the cached merged ranges, which must not be modified, or null on a miss
+	 */
+	public long[] get(long[] normalizedRanges) {
+		long[] mergedRanges;
+		synchronized (this) {
+			mergedRanges = entries.get(new CacheKey(normalizedRanges));
+		}
+
+		if (mergedRanges == null) {
+			missCount.increment();
+		} else {
+			hitCount.increment();
+		}
+		return mergedRanges;
+	}
+
+	/**
+	 * Stores the merged ranges for normalized input ranges, evicting the least recently used entries until the cache is
+	 * back within its bounds. Results heavier than the whole cache are not stored.
+	 *
+	 * @param normalizedRanges
+	 *            the packed input ranges in input order, retained by the cache and must not be modified afterwards
+	 * @param mergedRanges
+	 *            the merged ranges, retained by the cache and must not be modified afterwards
+	 */
+	public void put(long[] normalizedRanges, long[] mergedRanges) {
+		long entryWeight = weigh(normalizedRanges, mergedRanges);
+		if (maximumEntries <= 0 || entryWeight > maximumWeightBytes) {
+			return;
+		}
+
+		CacheKey key = new CacheKey(normalizedRanges);
+		synchronized (this) {
+			long[] previous = entries.put(key, mergedRanges);
+			if (previous != null) {
+				weightBytes -= weigh(normalizedRanges, previous);
+			}
+			weightBytes += entryWeight;
+
+			Iterator<Map.Entry<CacheKey, long[]>> eldest = entries.entrySet().iterator();
+			while (entries.size() > maximumEntries || weightBytes > maximumWeightBytes) {
+				Map.Entry<CacheKey, long[]> evicted = eldest.next();
+				weightBytes -= weigh(evicted.getKey().normalizedRanges, evicted.getValue());
+				eldest.remove();
+				evictionCount.increment();
+			}
+		}
+	}
+
+	/**
+	 * Removes every entry. Counters are kept.
+	 */
+	public synchronized void clear() {
+		entries.clear();
+		weightBytes = 0;
+	}
+
+	public synchronized int getSize() {
+		return entries.size();
+	}
+
+	public synchronized long getWeightBytes() {
+		return weightBytes;
+	}
+
+	public long getHitCount() {
+		return hitCount.sum();
+	}
+
+	public long getMissCount() {
+		return missCount.sum();
+	}
+
+	public long getEvictionCount() {
+		return evictionCount.sum();
+	}
+
+	@Override
+	public void bindTo(MeterRegistry registry) {
+		FunctionCounter.builder("ws.zip.range.cache.hits", this, ZipRangeResultCache::getHitCount)
+				.description("Merge results served from the cache").register(registry);
+		FunctionCounter.builder("ws.zip.range.cache.misses", this, ZipRangeResultCache::getMissCount)
+				.description("Merges that were not in the cache").register(registry);
+		FunctionCounter.builder("ws.zip.range.cache.evictions", this, ZipRangeResultCache::getEvictionCount)
+				.description("Entries evicted to stay within the cache bounds").register(registry);
+		Gauge.builder("ws.zip.range.cache.size", this, ZipRangeResultCache::getSize)
+				.description("Entries in the cache").register(registry);
+		Gauge.builder("ws.zip.range.cache.weight", this, ZipRangeResultCache::getWeightBytes).baseUnit("bytes")
+				.description("Approximate memory held by the cache").register(registry);
+	}
+
+	private static long weigh(long[] normalizedRanges, long[] mergedRanges) {
+		return ENTRY_OVERHEAD_BYTES + 8L * (normalizedRanges.length + mergedRanges.length);
+	}
+
+	/**
+	 * Cache key over the packed input ranges with a precomputed 64 bit hash.
+	 */
+	private static final class CacheKey {
+
+		private final long[] normalizedRanges;
+
+		private final long hash;
+
+		CacheKey(long[] normalizedRanges) {
+			this.normalizedRanges = normalizedRanges;
+
+			long value = 0L;
+			for (long range : normalizedRanges) {
+				value = (value ^ range) * 0x9E3779B97F4A7C15L;
+				value ^= value >>> 32;
+			}
+			this.hash = value;
+		}
+
+		@Override
+		public int hashCode() {
+			return (int) (hash ^ (hash >>> 32));
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof CacheKey)) {
+				return false;
+			}
+			CacheKey other = (CacheKey) obj;
+			return hash == other.hash && Arrays.equals(normalizedRanges, other.normalizedRanges);
+		}
+	}
+
+}
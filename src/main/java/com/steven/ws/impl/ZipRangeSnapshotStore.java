@@ -0,0 +1,222 @@
+package com.steven.ws.impl;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+/**
+ * Saves the restriction sets of the {@link com.steven.ws.impl.ZipRangeRegistry} to a snapshot file and restores them
+ * on startup, so merged sets survive a restart without being sent and merged again. Disabled when
+ * {@code ws.snapshot.path} is empty.
+ *
+ * <pre>
+ * The snapshot is little endian, made of a fixed header followed by one block per set:
+ * 	- header: magic "ZRS1", format version, number of sets, CRC32 of everything after the header, 4 bytes each
+ * 	- per set: UTF-8 name length, name padded to 4 bytes, number of ranges, then the lower and upper bound of each
+ * 	  merged range as ints
+ *
+ * Snapshots are written to a temporary file next to the target and moved over it atomically, so a crash while saving
+ * leaves the previous snapshot in place. They are read through a memory mapped buffer: the bounds of each set are
+ * copied in one pass into the sorted arrays of a {@link com.steven.ws.impl.ZipRangeIndex}, which the registry serves
+ * reads from as it is. Nothing is parsed, merged or inserted into a skip list on startup, a restored set is only
+ * copied into one when ranges are first added to it.
+ * </pre>
+ */
+@Component
+public class ZipRangeSnapshotStore {
+
+	private static final int MAGIC = 0x3153525A;
+
+	private static final int VERSION = 1;
+
+	private static final int HEADER_BYTES = 16;
+
+	private final Logger logger = LoggerFactory.getLogger(ZipRangeSnapshotStore.class);
+
+	@Value("${ws.snapshot.path:}")
+	private String snapshotPath;
+
+	@Autowired
+	private ZipRangeRegistry zipRangeRegistry;
+
+	/**
+	 * Replaces the registered restriction sets with the ones found in the snapshot file, if one is configured and
+	 * exists.
+	 *
+	 * @return the number of restored sets
+	 */
+	public int restore() {
+		if (!StringUtils.hasText(snapshotPath) || !Files.exists(Paths.get(snapshotPath))) {
+			return 0;
+		}
+
+		long start = System.nanoTime();
+		Map<String, ZipRangeIndex> restrictionSets;
+		try {
+			restrictionSets = read(Paths.get(snapshotPath));
+		} catch (IOException e) {
+			throw new UncheckedIOException("The restriction set snapshot " + snapshotPath + " could not be read", e);
+		}
+		for (Map.Entry<String, ZipRangeIndex> restrictionSet : restrictionSets.entrySet()) {
+			zipRangeRegistry.restoreRanges(restrictionSet.getKey(), restrictionSet.getValue());
+		}
+		logger.info("Restored {} restriction sets from {} in {} ms", restrictionSets.size(), snapshotPath,
+				(System.nanoTime() - start) / 1000000);
+		return restrictionSets.size();
+	}
+
+	/**
+	 * Writes every registered restriction set to the snapshot file, if one is configured.
+	 *
+	 * @return the number of saved sets
+	 */
+	public int save() {
+		if (!StringUtils.hasText(snapshotPath)) {
+			return 0;
+		}
+
+		Map<String, long[]> restrictionSets = zipRangeRegistry.getRestrictionSets();
+		try {
+			write(Paths.get(snapshotPath), restrictionSets);
+		} catch (IOException e) {
+			throw new UncheckedIOException("The restriction set snapshot " + snapshotPath + " could not be written",
+					e);
+		}
+		logger.info("Saved {} restriction sets to {}", restrictionSets.size(), snapshotPath);
+		return restrictionSets.size();
+	}
+
+	/**
+	 * Writes restriction sets to a snapshot file, replacing it atomically.
+	 *
+	 * @param path
+	 *            the snapshot file
+	 * @param restrictionSets
+	 *            the merged packed ranges of each set, by name
+	 * @throws IOException
+	 *             if the file cannot be written
+	 */
+	public static void write(Path path, Map<String, long[]> restrictionSets) throws IOException {
+		int size = HEADER_BYTES;
+		for (Map.Entry<String, long[]> restrictionSet : restrictionSets.entrySet()) {
+			size += 8 + align(restrictionSet.getKey().getBytes(StandardCharsets.UTF_8).length)
+					+ restrictionSet.getValue().length * 8;
+		}
+
+		byte[] snapshot = new byte[size];
+		ByteBuffer buffer = ByteBuffer.wrap(snapshot).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(restrictionSets.size()).putInt(0);
+		for (Map.Entry<String, long[]> restrictionSet : restrictionSets.entrySet()) {
+			byte[] name = restrictionSet.getKey().getBytes(StandardCharsets.UTF_8);
+			buffer.putInt(name.length).put(name).put(new byte[align(name.length) - name.length]);
+			buffer.putInt(restrictionSet.getValue().length);
+			for (long range : restrictionSet.getValue()) {
+				buffer.putInt(ZipRangeEngine.low(range)).putInt(ZipRangeEngine.high(range));
+			}
+		}
+		CRC32 checksum = new CRC32();
+		checksum.update(snapshot, HEADER_BYTES, size - HEADER_BYTES);
+		buffer.putInt(12, (int) checksum.getValue());
+
+		Path directory = path.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporaryFile = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+		try {
+			try (FileChannel channel = FileChannel.open(temporaryFile, StandardOpenOption.WRITE)) {
+				ByteBuffer source = ByteBuffer.wrap(snapshot);
+				while (source.hasRemaining()) {
+					channel.write(source);
+				}
+				channel.force(true);
+			}
+			Files.move(temporaryFile, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+
+	/**
+	 * Reads the restriction sets of a snapshot file through a memory mapped buffer.
+	 *
+	 * @param path
+	 *            the snapshot file
+	 * @return an index over the merged ranges of each set, by name, in the order they were written
+	 * @throws IOException
+	 *             if the file cannot be read or is not a valid snapshot
+	 */
+	public static Map<String, ZipRangeIndex> read(Path path) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+				// the header is read with positional reads until complete or end of file
+			}
+			if (header.hasRemaining() || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+				throw new IOException("Not a version " + VERSION + " restriction set snapshot");
+			}
+
+			ByteBuffer body = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES,
+					channel.size() - HEADER_BYTES);
+			body.order(ByteOrder.LITTLE_ENDIAN);
+			CRC32 checksum = new CRC32();
+			checksum.update(body.duplicate());
+			if ((int) checksum.getValue() != header.getInt(12)) {
+				throw new IOException("The restriction set snapshot checksum does not match its content");
+			}
+
+			return readRestrictionSets(body, header.getInt(8));
+		}
+	}
+
+	private static Map<String, ZipRangeIndex> readRestrictionSets(ByteBuffer body, int setCount) throws IOException {
+		Map<String, ZipRangeIndex> restrictionSets = new LinkedHashMap<>();
+		int offset = 0;
+		try {
+			for (int set = 0; set < setCount; set++) {
+				int nameLength = body.getInt(offset);
+				byte[] name = new byte[nameLength];
+				for (int i = 0; i < nameLength; i++) {
+					name[i] = body.get(offset + 4 + i);
+				}
+				offset += 4 + align(nameLength);
+
+				int rangeCount = body.getInt(offset);
+				offset += 4;
+				// the ranges were merged before being saved, so their bounds are already sorted
+				int[] starts = new int[rangeCount];
+				int[] ends = new int[rangeCount];
+				for (int i = 0; i < rangeCount; i++, offset += 8) {
+					starts[i] = body.getInt(offset);
+					ends[i] = body.getInt(offset + 4);
+				}
+				restrictionSets.put(new String(name, StandardCharsets.UTF_8),
+						ZipRangeIndex.fromSortedBounds(starts, ends));
+			}
+		} catch (IndexOutOfBoundsException | NegativeArraySizeException e) {
+			throw new IOException("The restriction set snapshot is truncated", e);
+		}
+		return restrictionSets;
+	}
+
+	private static int align(int length) {
+		return (length + 3) & ~3;
+	}
+
+}
@@ -0,0 +1,141 @@
+package com.steven.ws.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.impl.ZipCodeNormalizer;
+import com.steven.ws.impl.ZipRangeEngine;
+
+/**
+ * Token based deserializer reading the {@link com.steven.ws.dto.ZipRangeDTO} JSON shape straight into packed ranges,
+ * @see {@link com.steven.ws.impl.ZipRangeEngine}. Values are cleaned and validated from the parser's own text buffer,
+ * @see {@link com.steven.ws.impl.ZipCodeNormalizer}, so neither a String per value nor an object per range is created.
+ *
+ * <pre>
+ * Expected input: {"zipCodeRanges":[{"zipRange":["94133","94133"]},{"zipRange":["94200","94299"]}]}
+ *
+ * Unknown properties are skipped. A zip code that is not valid or a range that does not hold exactly 2 zip codes is
+ * rejected with a {@link com.steven.ws.parser.ZipRangeParseException} naming the offset of the offending token.
+ * </pre>
+ */
+public class PackedZipRangeDeserializer extends StdDeserializer<PackedZipRangeDTO> {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+	public PackedZipRangeDeserializer() {
+		super(PackedZipRangeDTO.class);
+	}
+
+	@Override
+	public PackedZipRangeDTO deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+		JsonToken token = parser.currentToken();
+		if (token == JsonToken.START_OBJECT) {
+			token = parser.nextToken();
+		}
+
+		PackedZipRangeDTO zipRangeDTO = new PackedZipRangeDTO();
+		for (; token == JsonToken.FIELD_NAME; token = parser.nextToken()) {
+			String fieldName = parser.getCurrentName();
+			token = parser.nextToken();
+			if (!"zipCodeRanges".equals(fieldName)) {
+				parser.skipChildren();
+			} else if (token == JsonToken.START_ARRAY) {
+				zipRangeDTO.setZipCodeRanges(readRanges(parser, context));
+			} else if (token != JsonToken.VALUE_NULL) {
+				return (PackedZipRangeDTO) context.handleUnexpectedToken(PackedZipRangeDTO.class, parser);
+			}
+		}
+
+		if (token != JsonToken.END_OBJECT) {
+			return (PackedZipRangeDTO) context.handleUnexpectedToken(PackedZipRangeDTO.class, parser);
+		}
+		return zipRangeDTO;
+	}
+
+	private long[] readRanges(JsonParser parser, DeserializationContext context) throws IOException {
+		long[] ranges = new long[INITIAL_CAPACITY];
+		int rangeCount = 0;
+		JsonToken token;
+		while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+			if (token != JsonToken.START_OBJECT) {
+				throw new ZipRangeParseException("A range must contain exactly 2 zip codes",
+						offsetOf(parser.getTokenLocation()));
+			}
+			if (rangeCount == ranges.length) {
+				ranges = Arrays.copyOf(ranges, rangeCount * 2);
+			}
+			ranges[rangeCount++] = readRange(parser, context);
+		}
+		return rangeCount == ranges.length ? ranges : Arrays.copyOf(ranges, rangeCount);
+	}
+
+	private long readRange(JsonParser parser, DeserializationContext context) throws IOException {
+		long rangeOffset = offsetOf(parser.getTokenLocation());
+		long range = -1;
+		for (JsonToken token = parser.nextToken(); token != JsonToken.END_OBJECT; token = parser.nextToken()) {
+			String fieldName = parser.getCurrentName();
+			token = parser.nextToken();
+			if (!"zipRange".equals(fieldName)) {
+				parser.skipChildren();
+			} else if (token == JsonToken.START_ARRAY) {
+				range = readZipRange(parser);
+			} else if (token != JsonToken.VALUE_NULL) {
+				context.handleUnexpectedToken(PackedZipRangeDTO.class, parser);
+			}
+		}
+
+		if (range < 0) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes", rangeOffset);
+		}
+		return range;
+	}
+
+	private long readZipRange(JsonParser parser) throws IOException {
+		long rangeOffset = offsetOf(parser.getTokenLocation());
+		JsonToken token = parser.nextToken();
+		if (token == JsonToken.END_ARRAY) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes", rangeOffset);
+		}
+		int first = readZipCode(parser, token);
+
+		token = parser.nextToken();
+		if (token == JsonToken.END_ARRAY) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes", rangeOffset);
+		}
+		int second = readZipCode(parser, token);
+
+		if (parser.nextToken() != JsonToken.END_ARRAY) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes",
+					offsetOf(parser.getTokenLocation()));
+		}
+		return ZipRangeEngine.pack(first, second);
+	}
+
+	private int readZipCode(JsonParser parser, JsonToken token) throws IOException {
+		int zipCode = ZipCodeNormalizer.INVALID_ZIP_CODE;
+		if (token == JsonToken.VALUE_STRING || token == JsonToken.VALUE_NUMBER_INT) {
+			zipCode = ZipCodeNormalizer.parseZipCode(parser.getTextCharacters(), parser.getTextOffset(),
+					parser.getTextLength());
+		}
+		if (zipCode == ZipCodeNormalizer.INVALID_ZIP_CODE) {
+			throw new ZipRangeParseException("Zip codes must be 5 digits", offsetOf(parser.getTokenLocation()));
+		}
+		return zipCode;
+	}
+
+	/**
+	 * Readers report character offsets and input streams report byte offsets, so use whichever one is known.
+	 */
+	private static long offsetOf(JsonLocation location) {
+		return location.getCharOffset() >= 0 ? location.getCharOffset() : location.getByteOffset();
+	}
+
+}
@@ -0,0 +1,165 @@
+package com.steven.ws.parser;
+
+import java.util.Arrays;
+
+import com.steven.ws.impl.ZipRangeEngine;
+
+/**
+ * Single pass, regex free parser for the pipe delimited range format used by the GET endpoints, e.g.
+ * {@code 10000,20000|50000,60000|11111,11112}. Ranges are parsed straight into packed primitives, @see
+ * {@link com.steven.ws.impl.ZipRangeEngine}, without creating any intermediate Strings or lists.
+ *
+ * <pre>
+ * The input is read the same way as splitting it on '|' then ',' and cleaning each value of any character that is not
+ * a digit, @see {@link com.steven.ws.impl.ZipCodeNormalizer}:
+ * 	- characters other than digits and separators are ignored, so 9a4133 is read as 94133
+ * 	- trailing empty ranges and values are dropped, so 10000,20000| and 10000,20000, are accepted
+ * A zip code that is not exactly 5 digits or a range that does not hold exactly 2 zip codes is rejected with a
+ * {@link com.steven.ws.parser.ZipRangeParseException} naming the offset where it starts.
+ * </pre>
+ */
+public final class PipeDelimitedRangeParser {
+
+	private static final int ZIP_CODE_LENGTH = 5;
+
+	/**
+	 * Shortest possible range plus its separator, e.g. "10000,20000|", used to size the output up front.
+	 */
+	private static final int MINIMUM_RANGE_LENGTH = 2 * ZIP_CODE_LENGTH + 2;
+
+	private static final int NONE = -1;
+
+	private final CharSequence input;
+
+	private final long[] ranges;
+
+	private int rangeCount;
+
+	/**
+	 * Offset of the '|' closing the first empty range not followed by a range yet, which is only valid at the end.
+	 */
+	private int emptyRangeOffset = NONE;
+
+	private int rangeStart;
+
+	private int rangeLength;
+
+	private int valueCount;
+
+	/**
+	 * Offset of the ',' closing the first empty value of the range not followed by a value yet.
+	 */
+	private int emptyValueOffset = NONE;
+
+	private int firstValue;
+
+	private int currentValue;
+
+	private int currentLength;
+
+	private int currentDigits;
+
+	private int valueStart;
+
+	private PipeDelimitedRangeParser(CharSequence input) {
+		this.input = input;
+		this.ranges = new long[input.length() / MINIMUM_RANGE_LENGTH + 1];
+	}
+
+	/**
+	 * @param input
+	 *            the pipe delimited ranges
+	 * @return the packed ranges in input order, oriented so the lower bound comes first
+	 * @throws ZipRangeParseException
+	 *             if the input is malformed
+	 */
+	public static long[] parse(CharSequence input) {
+		PipeDelimitedRangeParser parser = new PipeDelimitedRangeParser(input);
+		parser.scan();
+		return parser.rangeCount == parser.ranges.length ? parser.ranges
+				: Arrays.copyOf(parser.ranges, parser.rangeCount);
+	}
+
+	private void scan() {
+		int length = input.length();
+		for (int offset = 0; offset < length; offset++) {
+			char character = input.charAt(offset);
+			if (character == '|') {
+				endRange(offset);
+				continue;
+			}
+			if (rangeLength++ == 0) {
+				startRange(offset);
+			}
+			if (character == ',') {
+				endValue(offset);
+				continue;
+			}
+			if (currentLength++ == 0) {
+				startValue(offset);
+			}
+			if (character >= '0' && character <= '9') {
+				if (++currentDigits > ZIP_CODE_LENGTH) {
+					throw new ZipRangeParseException("Zip codes must be 5 digits", valueStart);
+				}
+				currentValue = currentValue * 10 + (character - '0');
+			}
+		}
+		endRange(length);
+	}
+
+	private void startRange(int offset) {
+		if (emptyRangeOffset != NONE) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes", emptyRangeOffset);
+		}
+		rangeStart = offset;
+	}
+
+	private void startValue(int offset) {
+		if (emptyValueOffset != NONE) {
+			throw new ZipRangeParseException("Zip codes must be 5 digits", emptyValueOffset);
+		}
+		if (valueCount == 2) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes", offset - 1);
+		}
+		valueStart = offset;
+		currentValue = 0;
+		currentDigits = 0;
+	}
+
+	private void endValue(int offset) {
+		if (currentLength == 0) {
+			if (emptyValueOffset == NONE) {
+				emptyValueOffset = offset;
+			}
+			return;
+		}
+		if (currentDigits != ZIP_CODE_LENGTH) {
+			throw new ZipRangeParseException("Zip codes must be 5 digits", valueStart);
+		}
+		if (valueCount == 0) {
+			firstValue = currentValue;
+		}
+		valueCount++;
+		currentLength = 0;
+	}
+
+	private void endRange(int offset) {
+		if (rangeLength == 0) {
+			if (emptyRangeOffset == NONE) {
+				emptyRangeOffset = offset;
+			}
+			return;
+		}
+		endValue(offset);
+		if (valueCount != 2) {
+			throw new ZipRangeParseException("A range must contain exactly 2 zip codes",
+					valueCount == 0 ? rangeStart : offset);
+		}
+		ranges[rangeCount++] = ZipRangeEngine.pack(firstValue, currentValue);
+		rangeLength = 0;
+		valueCount = 0;
+		emptyValueOffset = NONE;
+	}
+
+}
@@ -0,0 +1,148 @@
+package com.steven.ws.parser;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+import com.steven.ws.impl.ZipRangeEngine;
+
+/**
+ * Compact binary encoding of packed ranges, @see {@link com.steven.ws.impl.ZipRangeEngine}, served as
+ * {@value #MEDIA_TYPE_VALUE}. Merged ranges typically take 2 to 4 bytes each instead of about 20 bytes of JSON.
+ *
+ * <pre>
+ * All numbers are unsigned LEB128 varints, 7 bits per byte with the high bit set on every byte but the last:
+ * 	- the number of ranges
+ * 	- per range, the lower bound minus the previous lower bound, zigzag encoded so unsorted input stays small
+ * 	- per range, the upper bound minus the lower bound
+ *
+ * Example: [94133,94133] [94200,94299] is 02 EA BE 0B 00 86 01 63
+ * </pre>
+ */
+public final class ZipRangeBinaryCodec {
+
+	public static final String MEDIA_TYPE_VALUE = "application/x-zip-ranges";
+
+	/**
+	 * Largest encoded size of a range: two varints of at most 3 bytes each, as every value fits in 21 bits.
+	 */
+	private static final int MAXIMUM_RANGE_BYTES = 6;
+
+	private static final int MAXIMUM_VARINT_BYTES = 5;
+
+	private static final int INITIAL_CAPACITY = 1024;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private ZipRangeBinaryCodec() {
+	}
+
+	/**
+	 * @param ranges
+	 *            the packed ranges to encode, in the order they should be decoded
+	 * @return the encoded ranges
+	 */
+	public static byte[] encode(long[] ranges) {
+		byte[] encoded = new byte[MAXIMUM_VARINT_BYTES + ranges.length * MAXIMUM_RANGE_BYTES];
+		int position = writeVarint(encoded, 0, ranges.length);
+		int previousLow = 0;
+		for (long range : ranges) {
+			int low = ZipRangeEngine.low(range);
+			int delta = low - previousLow;
+			position = writeVarint(encoded, position, (delta << 1) ^ (delta >> 31));
+			position = writeVarint(encoded, position, ZipRangeEngine.high(range) - low);
+			previousLow = low;
+		}
+		return Arrays.copyOf(encoded, position);
+	}
+
+	/**
+	 * Reads encoded ranges until the declared number of ranges has been read.
+	 *
+	 * @param inputStream
+	 *            the source of the encoded ranges
+	 * @return the packed ranges in encoded order
+	 * @throws IOException
+	 *             if reading fails
+	 * @throws ZipRangeParseException
+	 *             if the input is truncated or holds a value outside of the zip code range
+	 */
+	public static long[] read(InputStream inputStream) throws IOException {
+		Decoder decoder = new Decoder(inputStream);
+		int rangeCount = decoder.readVarint();
+		if (rangeCount < 0) {
+			throw new ZipRangeParseException("Range count is negative", 0);
+		}
+		// the count is untrusted, so grow towards it instead of allocating it up front
+		long[] ranges = new long[Math.min(rangeCount, INITIAL_CAPACITY)];
+		int low = 0;
+		for (int i = 0; i < rangeCount; i++) {
+			long rangeOffset = decoder.offset;
+			int delta = decoder.readVarint();
+			low += (delta >>> 1) ^ -(delta & 1);
+			int high = low + decoder.readVarint();
+			if (low < 0 || high < low || high >= ZipRangeEngine.ZIP_CODE_UNIVERSE) {
+				throw new ZipRangeParseException("Range is outside of the zip code range", rangeOffset);
+			}
+			if (i == ranges.length) {
+				ranges = Arrays.copyOf(ranges, Math.min(rangeCount, i * 2));
+			}
+			ranges[i] = ZipRangeEngine.pack(low, high);
+		}
+		return ranges;
+	}
+
+	private static int writeVarint(byte[] target, int position, int value) {
+		while ((value & ~0x7F) != 0) {
+			target[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		target[position++] = (byte) value;
+		return position;
+	}
+
+	private static final class Decoder {
+
+		private final InputStream inputStream;
+
+		private final byte[] buffer = new byte[BUFFER_SIZE];
+
+		private int position;
+
+		private int limit;
+
+		private long offset;
+
+		private Decoder(InputStream inputStream) {
+			this.inputStream = inputStream;
+		}
+
+		private int readVarint() throws IOException {
+			long varintOffset = offset;
+			int value = 0;
+			for (int shift = 0; shift < 7 * MAXIMUM_VARINT_BYTES; shift += 7) {
+				int next = readByte(varintOffset);
+				value |= (next & 0x7F) << shift;
+				if ((next & 0x80) == 0) {
+					return value;
+				}
+			}
+			throw new ZipRangeParseException("Varint is longer than " + MAXIMUM_VARINT_BYTES + " bytes", varintOffset);
+		}
+
+		private int readByte(long varintOffset) throws IOException {
+			if (position == limit) {
+				limit = inputStream.read(buffer);
+				position = 0;
+				if (limit <= 0) {
+					limit = 0;
+					throw new ZipRangeParseException("Unexpected end of input", varintOffset);
+				}
+			}
+			offset++;
+			return buffer[position++] & 0xFF;
+		}
+
+	}
+
+}
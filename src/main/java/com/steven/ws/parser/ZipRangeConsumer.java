@@ -0,0 +1,17 @@
+package com.steven.ws.parser;
+
+/**
+ * Receives each range produced by a zip code range parser, as soon as it is read.
+ */
+@FunctionalInterface
+public interface ZipRangeConsumer {
+
+	/**
+	 * @param first
+	 *            the first bound of the range, as written in the input
+	 * @param second
+	 *            the second bound of the range, as written in the input
+	 */
+	void accept(int first, int second);
+
+}
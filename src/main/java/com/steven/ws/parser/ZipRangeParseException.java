@@ -0,0 +1,21 @@
+package com.steven.ws.parser;
+
+/**
+ * Thrown when zip code range input is malformed. Carries the offset of the first character that could not be parsed.
+ */
+public class ZipRangeParseException extends IllegalArgumentException {
+
+	private static final long serialVersionUID = 1L;
+
+	private final long offset;
+
+	public ZipRangeParseException(String message, long offset) {
+		super(message + " at offset " + offset + ", check your inputs and try again.");
+		this.offset = offset;
+	}
+
+	public long getOffset() {
+		return offset;
+	}
+
+}
@@ -0,0 +1,112 @@
+package com.steven.ws.parser;
+
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Reads zip code ranges token by token from a character stream and hands each range to a
+ * {@link com.steven.ws.parser.ZipRangeConsumer} as soon as it is complete, so the input is never held in memory.
+ *
+ * <pre>
+ * Every range is a bracketed pair of 5 digit zip codes. Values may be quoted and are separated by commas or
+ * whitespace. Anything outside of brackets is skipped, which covers both supported formats:
+ * 	- bracket text: [94133,94133] [94200,94299] [94600,94699]
+ * 	- NDJSON, one range per line: ["94133","94133"] or {"zipRange":["94133","94133"]}
+ * </pre>
+ */
+public final class ZipRangeStreamReader {
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private static final int ZIP_CODE_LENGTH = 5;
+
+	private ZipRangeStreamReader() {
+	}
+
+	/**
+	 * Reads every range from the reader.
+	 *
+	 * @param reader
+	 *            the source of the ranges, read until the end of the stream
+	 * @param consumer
+	 *            receives each range in input order
+	 * @return the number of ranges read
+	 * @throws IOException
+	 *             if the reader fails
+	 * @throws ZipRangeParseException
+	 *             if the input is malformed
+	 */
+	public static long read(Reader reader, ZipRangeConsumer consumer) throws IOException {
+		char[] buffer = new char[BUFFER_SIZE];
+		long offset = 0;
+		long rangeCount = 0;
+
+		boolean inRange = false;
+		int valueCount = 0;
+		int firstValue = 0;
+		int currentValue = 0;
+		int currentDigits = 0;
+		long valueStart = 0;
+
+		int read;
+		while ((read = reader.read(buffer)) != -1) {
+			for (int i = 0; i < read; i++, offset++) {
+				char character = buffer[i];
+
+				if (!inRange) {
+					if (character == '[') {
+						inRange = true;
+						valueCount = 0;
+						currentDigits = 0;
+					} else if (character == ']') {
+						throw new ZipRangeParseException("Unexpected closing bracket", offset);
+					}
+					continue;
+				}
+
+				if (character >= '0' && character <= '9') {
+					if (currentDigits == 0) {
+						if (valueCount == 2) {
+							throw new ZipRangeParseException("A range must contain exactly 2 zip codes", offset);
+						}
+						valueStart = offset;
+						currentValue = 0;
+					}
+					if (++currentDigits > ZIP_CODE_LENGTH) {
+						throw new ZipRangeParseException("Zip codes must be 5 digits", valueStart);
+					}
+					currentValue = currentValue * 10 + (character - '0');
+				} else if (character == ',' || character == '"' || Character.isWhitespace(character)
+						|| character == ']') {
+					if (currentDigits > 0) {
+						if (currentDigits != ZIP_CODE_LENGTH) {
+							throw new ZipRangeParseException("Zip codes must be 5 digits", valueStart);
+						}
+						if (valueCount == 0) {
+							firstValue = currentValue;
+						}
+						valueCount++;
+						currentDigits = 0;
+					}
+					if (character == ']') {
+						if (valueCount != 2) {
+							throw new ZipRangeParseException("A range must contain exactly 2 zip codes", offset);
+						}
+						consumer.accept(firstValue, currentValue);
+						rangeCount++;
+						inRange = false;
+					}
+				} else {
+					throw new ZipRangeParseException("Unexpected character '" + character + "'", offset);
+				}
+			}
+		}
+
+		if (inRange) {
+			throw new ZipRangeParseException("Unterminated range", offset);
+		}
+
+		return rangeCount;
+	}
+
+}
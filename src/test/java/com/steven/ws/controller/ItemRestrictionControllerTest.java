@@ -0,0 +1,35 @@
+package com.steven.ws.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ItemRestrictionControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	public void invalidItemLeavesTheWholeBatchUnindexed() throws Exception {
+		mockMvc.perform(put("/zipRange/items").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"items\":{\"sku1\":{\"zipCodeRanges\":[{\"zipRange\":[\"94000\",\"94999\"]}]},"
+						+ "\"sku2\":{\"zipCodeRanges\":[{\"zipRange\":[\"94000\",\"9499\"]}]}}}"))
+				.andExpect(status().isBadRequest());
+
+		mockMvc.perform(get("/zipRange/items/sku1")).andExpect(status().isNotFound());
+		mockMvc.perform(get("/zipRange/items/sku2")).andExpect(status().isNotFound());
+	}
+
+}
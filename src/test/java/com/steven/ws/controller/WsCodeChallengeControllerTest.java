@@ -0,0 +1,94 @@
+package com.steven.ws.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.steven.ws.impl.WsCodeChallengeManager;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class WsCodeChallengeControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@SpyBean
+	private WsCodeChallengeManager wsCodeChallengeManager;
+
+	@Test
+	public void registeredRestrictionSetIsMergedOnceAndReused() throws Exception {
+		mockMvc.perform(put("/zipRange/sets/checkout").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"zipCodeRanges\":[{\"zipRange\":[\"94200\",\"94299\"]},{\"zipRange\":[\"94250\",\"94399\"]}]}"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/zipRange/restricted/checkout/94350")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.restricted").value(true));
+		mockMvc.perform(get("/zipRange/restricted/checkout/94400")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.restricted").value(false));
+		mockMvc.perform(get("/zipRange/restricted/checkout/94200")).andExpect(status().isOk())
+				.andExpect(jsonPath("$.restricted").value(true));
+
+		verify(wsCodeChallengeManager, times(1)).retrieveMinimumPackedRangeSet(any(long[].class));
+		verify(wsCodeChallengeManager, times(0)).buildRestrictionIndex(any(long[].class));
+
+		mockMvc.perform(delete("/zipRange/sets/checkout")).andExpect(status().isNoContent());
+		mockMvc.perform(get("/zipRange/restricted/checkout/94350")).andExpect(status().isNotFound());
+	}
+
+	@Test
+	public void invalidZipCodeInSetOperationIsRejectedWithBadRequest() throws Exception {
+		mockMvc.perform(post("/zipRange/union").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"left\":[{\"zipRange\":[\"94200\",\"94299\"]}],"
+						+ "\"right\":[{\"zipRange\":[\"9430\",\"94399\"]}]}"))
+				.andExpect(status().isBadRequest()).andExpect(content().string(
+						"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again."));
+	}
+
+	@Test
+	public void asyncRequestPayloadIsRecordedOnce() throws Exception {
+		long countBefore = payloadCount();
+
+		MvcResult mvcResult = mockMvc.perform(get("/zipRange").param("zipCodeRanges", "10000,20000|15000,30000"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mockMvc.perform(asyncDispatch(mvcResult)).andExpect(status().isOk())
+				.andExpect(jsonPath("$[0][1]").value("30000"));
+
+		Assert.assertEquals(countBefore + 1, payloadCount());
+	}
+
+	private long payloadCount() {
+		DistributionSummary payload = meterRegistry.find("ws.zip.range.request.payload").tag("method", "GET")
+				.tag("endpoint", "/zipRange").summary();
+		return payload == null ? 0 : payload.count();
+	}
+
+}
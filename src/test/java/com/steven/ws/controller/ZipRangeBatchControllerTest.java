@@ -0,0 +1,60 @@
+package com.steven.ws.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steven.ws.dto.ZipRangeBatchResultDTO;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ZipRangeBatchControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Test
+	public void eachItemIsStreamedAsOneLineWithItsRangesOrItsError() throws Exception {
+		MvcResult mvcResult = mockMvc.perform(post("/zipRange/batch").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"items\":{\"sku1\":{\"zipCodeRanges\":[{\"zipRange\":[\"10000\",\"20000\"]},"
+						+ "{\"zipRange\":[\"15000\",\"30000\"]}]},"
+						+ "\"sku2\":{\"zipCodeRanges\":[{\"zipRange\":[\"94000\",\"9499\"]}]}}}"))
+				.andExpect(request().asyncStarted()).andReturn();
+		mvcResult.getAsyncResult(10000);
+
+		Assert.assertEquals("application/x-ndjson", mvcResult.getResponse().getContentType());
+		String[] lines = mvcResult.getResponse().getContentAsString().split("\n");
+		Assert.assertEquals(2, lines.length);
+		Map<String, ZipRangeBatchResultDTO> results = new HashMap<>();
+		for (String line : lines) {
+			ZipRangeBatchResultDTO result = objectMapper.readValue(line, ZipRangeBatchResultDTO.class);
+			results.put(result.getItemId(), result);
+		}
+
+		Assert.assertEquals("[[10000, 30000]]", results.get("sku1").getZipCodeRanges().toString());
+		Assert.assertNull(results.get("sku1").getError());
+		Assert.assertNull(results.get("sku2").getZipCodeRanges());
+		Assert.assertEquals(
+				"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again.",
+				results.get("sku2").getError());
+	}
+
+}
@@ -0,0 +1,85 @@
+package com.steven.ws.controller;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.junit4.SpringRunner;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT, properties = { "ws.async.large-threshold=3",
+		"ws.async.small.threads=1", "ws.async.small.queue-capacity=1", "ws.async.large.threads=1",
+		"ws.async.large.queue-capacity=1", "spring.mvc.async.request-timeout=500" })
+public class ZipRangeRequestLanesTest {
+
+	private static final String SMALL_REQUEST = "/zipRange?zipCodeRanges=10000,20000|15000,30000";
+
+	@Autowired
+	private ZipRangeRequestLanes zipRangeRequestLanes;
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Test
+	public void requestsAreRoutedToTheirLaneBySize() throws Exception {
+		Assert.assertTrue(zipRangeRequestLanes.submit(2, () -> Thread.currentThread().getName()).get()
+				.startsWith("zip-range-small-"));
+		Assert.assertTrue(zipRangeRequestLanes.submit(3, () -> Thread.currentThread().getName()).get()
+				.startsWith("zip-range-large-"));
+	}
+
+	@Test
+	public void requestAtAFullLaneIsRejectedWithTooManyRequests() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			// one request holds the only worker and another fills the queue
+			occupySmallLane(release);
+			zipRangeRequestLanes.submit(2, () -> null);
+
+			ResponseEntity<String> response = restTemplate.getForEntity(SMALL_REQUEST, String.class);
+			Assert.assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+			Assert.assertEquals("1", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+		} finally {
+			release.countDown();
+		}
+
+		Assert.assertEquals(HttpStatus.OK, restTemplate.getForEntity(SMALL_REQUEST, String.class).getStatusCode());
+	}
+
+	@Test
+	public void requestWaitingPastTheTimeoutIsAnsweredWithServiceUnavailable() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		try {
+			occupySmallLane(release);
+
+			ResponseEntity<String> response = restTemplate.getForEntity(SMALL_REQUEST, String.class);
+			Assert.assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+		} finally {
+			release.countDown();
+		}
+	}
+
+	private void occupySmallLane(CountDownLatch release) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		zipRangeRequestLanes.submit(2, () -> {
+			started.countDown();
+			try {
+				return release.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return false;
+			}
+		});
+		Assert.assertTrue(started.await(5, TimeUnit.SECONDS));
+	}
+
+}
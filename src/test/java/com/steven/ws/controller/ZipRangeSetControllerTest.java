@@ -0,0 +1,51 @@
+package com.steven.ws.controller;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.test.web.servlet.MockMvc;
+
+@RunWith(SpringRunner.class)
+@SpringBootTest
+@AutoConfigureMockMvc
+public class ZipRangeSetControllerTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Test
+	public void malformedRangesAreRejectedWithBadRequest() throws Exception {
+		mockMvc.perform(post("/zipRange/sets/carrierA").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"zipCodeRanges\":[{\"zipRange\":[\"94200\",\"9429\"]}]}"))
+				.andExpect(status().isBadRequest())
+				.andExpect(content().string(Matchers.startsWith("Zip codes must be 5 digits at offset")));
+		mockMvc.perform(get("/zipRange/sets/carrierA")).andExpect(status().isNotFound());
+
+		mockMvc.perform(put("/zipRange/items/sku1").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"zipCodeRanges\":[{\"zipRange\":[\"94200\"]}]}")).andExpect(status().isBadRequest())
+				.andExpect(content().string(Matchers.startsWith("A range must contain exactly 2 zip codes")));
+	}
+
+	@Test
+	public void invalidZipCodeLookupIsRejectedWithBadRequest() throws Exception {
+		mockMvc.perform(put("/zipRange/sets/carrierB").contentType(MediaType.APPLICATION_JSON)
+				.content("{\"zipCodeRanges\":[{\"zipRange\":[\"94200\",\"94299\"]}]}"))
+				.andExpect(status().isNoContent());
+
+		mockMvc.perform(get("/zipRange/sets/carrierB/restricted/abc")).andExpect(status().isBadRequest())
+				.andExpect(content().string(
+						"The zip code provided is not valid, expected format is 5 digit integer, check your inputs and try again."));
+	}
+
+}
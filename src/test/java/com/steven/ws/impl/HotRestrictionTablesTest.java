@@ -0,0 +1,30 @@
+package com.steven.ws.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class HotRestrictionTablesTest {
+
+	private HotRestrictionTables hotRestrictionTables = new HotRestrictionTables();
+
+	@Test
+	public void hotSetReturnsTheSameRangesAsTheRegistry() {
+		long[] firstRanges = new long[] { ZipRangeEngine.pack(94200, 94299), ZipRangeEngine.pack(94300, 94399) };
+		long[] addedRanges = new long[] { ZipRangeEngine.pack(10000, 10010), ZipRangeEngine.pack(94350, 94500) };
+		ZipRangeRegistry zipRangeRegistry = new ZipRangeRegistry();
+		zipRangeRegistry.replaceRanges("carrierA", firstRanges);
+		zipRangeRegistry.addRanges("carrierA", addedRanges);
+
+		hotRestrictionTables.publish("carrierA", firstRanges.clone());
+		Assert.assertArrayEquals(firstRanges, hotRestrictionTables.getRanges("carrierA"));
+		hotRestrictionTables.addRanges("carrierA", addedRanges);
+
+		Assert.assertArrayEquals(zipRangeRegistry.getRestrictionSet("carrierA"),
+				hotRestrictionTables.getRanges("carrierA"));
+		Assert.assertTrue(hotRestrictionTables.isZipCodeRestricted("carrierA", 94299));
+		Assert.assertTrue(hotRestrictionTables.isZipCodeRestricted("carrierA", 94450));
+		Assert.assertFalse(hotRestrictionTables.isZipCodeRestricted("carrierA", 94501));
+		Assert.assertNull(hotRestrictionTables.getRanges("carrierB"));
+	}
+
+}
@@ -0,0 +1,93 @@
+package com.steven.ws.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ItemRestrictionIndexTest {
+
+	private ItemRestrictionIndex itemRestrictionIndex = new ItemRestrictionIndex();
+
+	@Test
+	public void restrictedItemsMatchEveryItemChecked() {
+		Random random = new Random(11);
+		Map<String, long[]> items = new HashMap<>();
+		for (int i = 0; i < 300; i++) {
+			String itemId = "sku" + random.nextInt(200);
+			if (random.nextInt(10) == 0) {
+				items.remove(itemId);
+				itemRestrictionIndex.removeItem(itemId);
+			} else {
+				long[] ranges = randomMergedRanges(random);
+				items.put(itemId, ranges);
+				itemRestrictionIndex.putItem(itemId, ranges);
+			}
+		}
+		Assert.assertEquals(items.size(), itemRestrictionIndex.size());
+
+		for (int zipCode = 0; zipCode < ZipRangeEngine.ZIP_CODE_UNIVERSE; zipCode += 37) {
+			List<String> expectedItems = new ArrayList<>();
+			for (Map.Entry<String, long[]> item : items.entrySet()) {
+				long[] ranges = item.getValue();
+				if (ZipRangeIndex.fromMergedRanges(ranges, ranges.length).contains(zipCode)) {
+					expectedItems.add(item.getKey());
+				}
+			}
+			List<String> restrictedItems = itemRestrictionIndex.getRestrictedItems(zipCode);
+			Collections.sort(expectedItems);
+			Collections.sort(restrictedItems);
+			Assert.assertEquals("zip code " + zipCode, expectedItems, restrictedItems);
+		}
+	}
+
+	@Test
+	public void replacingAnItemClearsItsPreviousRanges() {
+		itemRestrictionIndex.putItem("sku1", new long[] { ZipRangeEngine.pack(94000, 94999) });
+		itemRestrictionIndex.putItem("sku2", new long[] { ZipRangeEngine.pack(94150, 94150) });
+		Assert.assertEquals(Arrays.asList("sku1", "sku2"), itemRestrictionIndex.getRestrictedItems(94150));
+
+		itemRestrictionIndex.putItem("sku1", new long[] { ZipRangeEngine.pack(10000, 10049) });
+		Assert.assertEquals(Arrays.asList("sku2"), itemRestrictionIndex.getRestrictedItems(94150));
+		Assert.assertEquals(Arrays.asList("sku1"), itemRestrictionIndex.getRestrictedItems(10049));
+		Assert.assertEquals(Collections.emptyList(), itemRestrictionIndex.getRestrictedItems(10050));
+
+		Assert.assertTrue(itemRestrictionIndex.removeItem("sku2"));
+		Assert.assertFalse(itemRestrictionIndex.removeItem("sku2"));
+		Assert.assertNull(itemRestrictionIndex.getItemRanges("sku2"));
+		Assert.assertEquals(Collections.emptyList(), itemRestrictionIndex.getRestrictedItems(94150));
+	}
+
+	@Test
+	public void putItemsIndexesEveryItemAndReplacesExistingOnes() {
+		itemRestrictionIndex.putItem("sku1", new long[] { ZipRangeEngine.pack(94000, 94999) });
+
+		Map<String, long[]> items = new HashMap<>();
+		items.put("sku1", new long[] { ZipRangeEngine.pack(10000, 10049) });
+		items.put("sku2", new long[] { ZipRangeEngine.pack(10040, 10199), ZipRangeEngine.pack(94150, 94150) });
+		itemRestrictionIndex.putItems(items);
+
+		Assert.assertEquals(2, itemRestrictionIndex.size());
+		Assert.assertEquals(Arrays.asList("sku2"), itemRestrictionIndex.getRestrictedItems(94150));
+		List<String> restrictedItems = itemRestrictionIndex.getRestrictedItems(10045);
+		Collections.sort(restrictedItems);
+		Assert.assertEquals(Arrays.asList("sku1", "sku2"), restrictedItems);
+		Assert.assertEquals(Arrays.asList("sku2"), itemRestrictionIndex.getRestrictedItems(10150));
+	}
+
+	private static long[] randomMergedRanges(Random random) {
+		long[] ranges = new long[1 + random.nextInt(20)];
+		for (int i = 0; i < ranges.length; i++) {
+			int low = random.nextInt(ZipRangeEngine.ZIP_CODE_UNIVERSE);
+			ranges[i] = ZipRangeEngine.pack(low, Math.min(low + random.nextInt(2000), 99999));
+		}
+		return Arrays.copyOf(ranges, ZipRangeEngine.merge(ranges, ranges.length));
+	}
+
+}
@@ -3,11 +3,13 @@ package com.steven.ws.impl;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.steven.ws.bo.ZipCodeRangeBO;
@@ -301,6 +303,287 @@ public class WsCodeChallengeManagerTest {
 		Assert.assertEquals(expectedList, returnList);
 	}
 
+	@Test
+	public void determineRangeFromValuesWithSeparatorsLeavesInputUnchanged() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94-133", "\"94000\""));
+		list.add(Arrays.asList("94 200", "94,299"));
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("94000", "94133"));
+		expectedList.add(Arrays.asList("94200", "94299"));
+		Assert.assertEquals(expectedList, returnList);
+		Assert.assertEquals(Arrays.asList("94-133", "\"94000\""), list.get(0));
+	}
+
+	@Test
+	public void testDetermineRangeBadFormat_tooManyDigits() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94-1330", "94000"));
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage(
+				"The list provided does not contain valid zip code values, expected format is 5 digit integer per entry, check your inputs and try again.");
+		wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+	}
+
+	@Test
+	public void determineRangeFromChainedOverlappingLists() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("10000", "20000"));
+		list.add(Arrays.asList("19000", "30000"));
+		list.add(Arrays.asList("29000", "40000"));
+		list.add(Arrays.asList("39000", "50000"));
+		list.add(Arrays.asList("00001", "00002"));
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("00001", "00002"));
+		expectedList.add(Arrays.asList("10000", "50000"));
+		Assert.assertEquals(expectedList, returnList);
+	}
+
+	@Test
+	public void determineRangeWithBitSetMergeMode() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94600", "94699"));
+		list.add(Arrays.asList("94133", "94000"));
+		list.add(Arrays.asList("94133", "94299"));
+		list.add(Arrays.asList("00000", "12345"));
+		list.add(Arrays.asList("99990", "99999"));
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list,
+				MergeMode.BITSET);
+
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("00000", "12345"));
+		expectedList.add(Arrays.asList("94000", "94299"));
+		expectedList.add(Arrays.asList("94600", "94699"));
+		expectedList.add(Arrays.asList("99990", "99999"));
+		Assert.assertEquals(expectedList, returnList);
+	}
+
+	@Test
+	public void determineRangeWithBitSetMergeModeKeepsAdjacentRangesApart() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94000", "94133"));
+		list.add(Arrays.asList("94134", "94299"));
+		list.add(Arrays.asList("94300", "94300"));
+		list.add(Arrays.asList("94301", "94400"));
+		list.add(Arrays.asList("94350", "94301"));
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list,
+				MergeMode.BITSET);
+
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("94000", "94133"));
+		expectedList.add(Arrays.asList("94134", "94299"));
+		expectedList.add(Arrays.asList("94300", "94300"));
+		expectedList.add(Arrays.asList("94301", "94400"));
+		Assert.assertEquals(expectedList, returnList);
+		Assert.assertEquals(returnList, wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list));
+	}
+
+	@Test
+	public void bitSetMergeMatchesSortSweepMerge() {
+		Random random = new Random(7);
+		for (int round = 0; round < 50; round++) {
+			long[] ranges = new long[1 + random.nextInt(500)];
+			for (int i = 0; i < ranges.length; i++) {
+				int low = random.nextInt(ZipRangeEngine.ZIP_CODE_UNIVERSE);
+				ranges[i] = ZipRangeEngine.pack(low, Math.min(low + random.nextInt(300), 99999));
+			}
+			long[] bitSetRanges = ranges.clone();
+			int bitSetCount = ZipRangeEngine.bitSetMerge(bitSetRanges, bitSetRanges.length);
+			int mergedCount = ZipRangeEngine.merge(ranges, ranges.length);
+			Assert.assertArrayEquals(Arrays.copyOf(ranges, mergedCount), Arrays.copyOf(bitSetRanges, bitSetCount));
+		}
+	}
+
+	@Test
+	public void mergingPackedRangesLeavesTheInputInOrder() {
+		long[] packedRanges = new long[] { ZipRangeEngine.pack(94600, 94699), ZipRangeEngine.pack(94000, 94133),
+				ZipRangeEngine.pack(94100, 94299) };
+		long[] inputRanges = packedRanges.clone();
+
+		for (MergeMode mergeMode : MergeMode.values()) {
+			Assert.assertArrayEquals(
+					new long[] { ZipRangeEngine.pack(94000, 94299), ZipRangeEngine.pack(94600, 94699) },
+					wsCodeChallengeManager.retrieveMinimumPackedRangeSet(packedRanges, mergeMode));
+			Assert.assertArrayEquals(inputRanges, packedRanges);
+		}
+
+		ReflectionTestUtils.setField(wsCodeChallengeManager, "resultCache", new ZipRangeResultCache(10, 1024 * 1024));
+		wsCodeChallengeManager.retrieveMinimumPackedRangeSet(packedRanges);
+		wsCodeChallengeManager.retrieveMinimumPackedRangeSet(packedRanges);
+		Assert.assertArrayEquals(inputRanges, packedRanges);
+	}
+
+	@Test
+	public void determineRangeFromLargeUnorderedList() {
+		Random random = new Random(42);
+		List<List<String>> list = new ArrayList<>();
+		List<int[]> expectedRanges = new ArrayList<>();
+		for (int i = 0; i < 50000; i++) {
+			int low = random.nextInt(99000);
+			int high = low + random.nextInt(5);
+			expectedRanges.add(new int[] { low, high });
+			list.add(Arrays.asList(String.format("%05d", high), String.format("%05d", low)));
+		}
+
+		expectedRanges.sort((int[] o1, int[] o2) -> Integer.compare(o1[0], o2[0]));
+		List<List<String>> expectedList = new ArrayList<>();
+		int[] current = expectedRanges.get(0);
+		for (int[] range : expectedRanges) {
+			if (range[0] <= current[1]) {
+				current[1] = Math.max(current[1], range[1]);
+			} else {
+				expectedList.add(Arrays.asList(String.format("%05d", current[0]), String.format("%05d", current[1])));
+				current = range;
+			}
+		}
+		expectedList.add(Arrays.asList(String.format("%05d", current[0]), String.format("%05d", current[1])));
+
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+		Assert.assertEquals(expectedList, returnList);
+
+		List<List<String>> parallelReturnList = wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list,
+				MergeMode.PARALLEL);
+		Assert.assertEquals(expectedList, parallelReturnList);
+	}
+
+	@Test
+	public void checkZipCodeRestrictedAgainstIndex() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94133", "94133"));
+		list.add(Arrays.asList("94200", "94299"));
+		list.add(Arrays.asList("94600", "94699"));
+		ZipRangeIndex restrictionIndex = wsCodeChallengeManager.buildRestrictionIndex(list);
+
+		Assert.assertTrue(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94133"));
+		Assert.assertTrue(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94650"));
+		Assert.assertTrue(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94230"));
+		Assert.assertTrue(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94600"));
+		Assert.assertTrue(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94299"));
+		Assert.assertFalse(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94199"));
+		Assert.assertFalse(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "94300"));
+		Assert.assertFalse(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "65532"));
+		Assert.assertFalse(wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "00000"));
+	}
+
+	@Test
+	public void checkManyZipCodesRestricted() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94133", "94133"));
+		list.add(Arrays.asList("94200", "94299"));
+		list.add(Arrays.asList("94600", "94699"));
+		List<String> zipCodes = Arrays.asList("94650", "94199", "94133", "94300", "65532", "94230", "99999", "94600",
+				"94299", "94230");
+
+		boolean[] restricted = wsCodeChallengeManager.checkZipCodesRestricted(list, zipCodes);
+
+		boolean[] expected = new boolean[] { true, false, true, false, false, true, false, true, true, true };
+		Assert.assertArrayEquals(expected, restricted);
+	}
+
+	@Test
+	public void checkZipCodeRestrictedBadFormat() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94133", "94133"));
+		ZipRangeIndex restrictionIndex = wsCodeChallengeManager.buildRestrictionIndex(list);
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage(
+				"The zip code provided is not valid, expected format is 5 digit integer, check your inputs and try again.");
+		wsCodeChallengeManager.isZipCodeRestricted(restrictionIndex, "9413");
+	}
+
+	@Test
+	public void determineRangeFromSortedSources() {
+		List<List<String>> source1 = new ArrayList<>();
+		source1.add(Arrays.asList("00000", "12345"));
+		source1.add(Arrays.asList("94133", "94133"));
+		source1.add(Arrays.asList("94600", "94699"));
+		List<List<String>> source2 = new ArrayList<>();
+		source2.add(Arrays.asList("94200", "94299"));
+		source2.add(Arrays.asList("94299", "94200"));
+		source2.add(Arrays.asList("94226", "94399"));
+		List<List<String>> source3 = new ArrayList<>();
+		source3.add(Arrays.asList("12000", "20000"));
+		source3.add(Arrays.asList("94650", "94700"));
+
+		List<List<String>> returnList = wsCodeChallengeManager
+				.retrieveMinimumRangeSetFromSortedSources(Arrays.asList(source1, source2, source3));
+
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("00000", "20000"));
+		expectedList.add(Arrays.asList("94133", "94133"));
+		expectedList.add(Arrays.asList("94200", "94399"));
+		expectedList.add(Arrays.asList("94600", "94700"));
+		Assert.assertEquals(expectedList, returnList);
+	}
+
+	@Test
+	public void determineRangeFromSortedSourcesUnsortedSource() {
+		List<List<String>> source1 = new ArrayList<>();
+		source1.add(Arrays.asList("00000", "12345"));
+		List<List<String>> source2 = new ArrayList<>();
+		source2.add(Arrays.asList("94600", "94699"));
+		source2.add(Arrays.asList("94200", "94299"));
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage(
+				"The source at position 1 is not sorted by lower zip code value, check your inputs and try again.");
+		wsCodeChallengeManager.retrieveMinimumRangeSetFromSortedSources(Arrays.asList(source1, source2));
+	}
+
+	@Test
+	public void combineRangeSets() {
+		List<List<String>> left = new ArrayList<>();
+		left.add(Arrays.asList("94000", "94999"));
+		left.add(Arrays.asList("96000", "96099"));
+		List<List<String>> right = new ArrayList<>();
+		right.add(Arrays.asList("94200", "94299"));
+		right.add(Arrays.asList("94900", "96049"));
+
+		List<List<String>> expectedIntersection = Arrays.asList(Arrays.asList("94200", "94299"),
+				Arrays.asList("94900", "94999"), Arrays.asList("96000", "96049"));
+		Assert.assertEquals(expectedIntersection,
+				wsCodeChallengeManager.retrieveRangeSetCombination(left, right, SetOperation.INTERSECTION));
+
+		List<List<String>> expectedDifference = Arrays.asList(Arrays.asList("94000", "94199"),
+				Arrays.asList("94300", "94899"), Arrays.asList("96050", "96099"));
+		Assert.assertEquals(expectedDifference,
+				wsCodeChallengeManager.retrieveRangeSetCombination(left, right, SetOperation.DIFFERENCE));
+
+		List<List<String>> expectedUnion = Arrays.asList(Arrays.asList("94000", "96099"));
+		Assert.assertEquals(expectedUnion,
+				wsCodeChallengeManager.retrieveRangeSetCombination(left, right, SetOperation.UNION));
+	}
+
+	@Test
+	public void combineRangeSetsWithoutOverlap() {
+		List<List<String>> left = new ArrayList<>();
+		left.add(Arrays.asList("10000", "10005"));
+		List<List<String>> right = new ArrayList<>();
+		right.add(Arrays.asList("10006", "10010"));
+
+		Assert.assertTrue(
+				wsCodeChallengeManager.retrieveRangeSetCombination(left, right, SetOperation.INTERSECTION).isEmpty());
+		Assert.assertEquals(left,
+				wsCodeChallengeManager.retrieveRangeSetCombination(left, right, SetOperation.DIFFERENCE));
+	}
+
+	@Test
+	public void complementRangeSet() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("00000", "00100"));
+		list.add(Arrays.asList("50000", "50010"));
+		list.add(Arrays.asList("50011", "60000"));
+
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("00101", "49999"),
+				Arrays.asList("60001", "99999"));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager.retrieveRangeSetComplement(list));
+
+		Assert.assertTrue(wsCodeChallengeManager
+				.retrieveRangeSetComplement(Arrays.asList(Arrays.asList("99999", "00000"))).isEmpty());
+	}
+
 	@Test
 	public void determineRangeFromBOObject() throws Exception {
 		ZipRangeBO zipRangeBO = new ZipRangeBO();
@@ -329,4 +612,79 @@ public class WsCodeChallengeManagerTest {
 		Assert.assertEquals(expectedList, returnList);
 	}
 
+	@Test
+	public void phaseTraceRecordsOnlyWhileStarted() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("71000", "71999"));
+		list.add(Arrays.asList("71500", "72500"));
+
+		ZipRangePhaseTrace phaseTrace = ZipRangePhaseTrace.start();
+		wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+		phaseTrace.stop();
+		long normalizeNanos = phaseTrace.getPhaseNanos(ZipRangeMetrics.Phase.NORMALIZE);
+		Assert.assertTrue(normalizeNanos > 0);
+
+		wsCodeChallengeManager.retrieveMinimumRangeSetFromArray(list);
+		Assert.assertEquals(normalizeNanos, phaseTrace.getPhaseNanos(ZipRangeMetrics.Phase.NORMALIZE));
+		Assert.assertEquals(String.format("#%08x->#%08x",
+				Arrays.hashCode(new long[] { ZipRangeEngine.pack(71000, 71999), ZipRangeEngine.pack(71500, 72500) }),
+				Arrays.hashCode(new long[] { ZipRangeEngine.pack(71000, 72500) })), phaseTrace.getMergeHashes());
+	}
+
+	@Test
+	public void retrieveMinimumZipPlus4RangeSetExpandsZipCodes() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94133-5000", "94133"));
+		list.add(Arrays.asList("941340100", "94133-0000"));
+		list.add(Arrays.asList("10000", "10000"));
+		List<List<String>> returnList = wsCodeChallengeManager.retrieveMinimumZipPlus4RangeSet(list);
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("10000-0000", "10000-9999"));
+		expectedList.add(Arrays.asList("94133-0000", "94134-0100"));
+		Assert.assertEquals(expectedList, returnList);
+	}
+
+	@Test
+	public void retrieveMinimumZipPlus4RangeSetDoesNotDependOnBoundOrder() {
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("94133-0000", "94133-9999"));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133", "94133-0000"))));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133-0000", "94133"))));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133-5000", "94133"))));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133", "94133-5000"))));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133", "94133"))));
+	}
+
+	@Test
+	public void retrieveMinimumZipPlus4RangeSetMixesZipCodesWithZipPlus4Codes() {
+		List<List<String>> expectedList = new ArrayList<>();
+		expectedList.add(Arrays.asList("94133-5000", "94135-9999"));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94133-5000", "94135"))));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94135", "94133-5000"))));
+
+		expectedList.set(0, Arrays.asList("94133-0000", "94135-0042"));
+		Assert.assertEquals(expectedList, wsCodeChallengeManager
+				.retrieveMinimumZipPlus4RangeSet(Arrays.asList(Arrays.asList("94135-0042", "94133"))));
+	}
+
+	@Test
+	public void checkZipPlus4CodesRejectsZipCodes() {
+		List<List<String>> list = new ArrayList<>();
+		list.add(Arrays.asList("94133-0000", "94133-4999"));
+		Assert.assertArrayEquals(new boolean[] { true, false }, wsCodeChallengeManager
+				.checkZipPlus4CodesRestricted(list, Arrays.asList("94133-4999", "94133-5000")));
+
+		expectedEx.expect(IllegalArgumentException.class);
+		expectedEx.expectMessage(
+				"The zip code provided is not valid, expected format is 9 digit integer, check your inputs and try again.");
+		wsCodeChallengeManager.checkZipPlus4CodesRestricted(list, Arrays.asList("94133"));
+	}
+
 }
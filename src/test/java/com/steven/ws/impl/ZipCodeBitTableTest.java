@@ -0,0 +1,51 @@
+package com.steven.ws.impl;
+
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZipCodeBitTableTest {
+
+	@Test
+	public void containsMatchesRangeIndexAcrossWordBoundaries() {
+		Random random = new Random(7);
+		long[] ranges = new long[500];
+		for (int i = 0; i < ranges.length; i++) {
+			int low = random.nextInt(ZipRangeEngine.ZIP_CODE_UNIVERSE);
+			ranges[i] = ZipRangeEngine.pack(low, Math.min(low + random.nextInt(300), 99999));
+		}
+		ranges[0] = ZipRangeEngine.pack(63, 64);
+		ranges[1] = ZipRangeEngine.pack(128, 191);
+		ranges[2] = ZipRangeEngine.pack(99999, 99999);
+
+		ZipCodeBitTable table = ZipCodeBitTable.fromRanges(ranges, ranges.length);
+		long[] mergedRanges = ranges.clone();
+		ZipRangeIndex index = ZipRangeIndex.fromMergedRanges(mergedRanges,
+				ZipRangeEngine.merge(mergedRanges, mergedRanges.length));
+
+		int cardinality = 0;
+		for (int zipCode = 0; zipCode < ZipRangeEngine.ZIP_CODE_UNIVERSE; zipCode++) {
+			Assert.assertEquals("zip code " + zipCode, index.contains(zipCode), table.contains(zipCode));
+			cardinality += index.contains(zipCode) ? 1 : 0;
+		}
+		Assert.assertEquals(cardinality, table.cardinality());
+		Assert.assertFalse(table.contains(-1));
+		Assert.assertFalse(table.contains(100000));
+	}
+
+	@Test
+	public void withRangesLeavesTheOriginalTableUnchanged() {
+		ZipCodeBitTable table = ZipCodeBitTable.fromRanges(new long[] { ZipRangeEngine.pack(94200, 94299) }, 1);
+		ZipCodeBitTable updatedTable = table.withRanges(
+				new long[] { ZipRangeEngine.pack(94300, 94399), ZipRangeEngine.pack(10000, 10000) }, 2);
+
+		Assert.assertFalse(table.contains(94300));
+		Assert.assertTrue(updatedTable.contains(94300));
+		Assert.assertArrayEquals(new long[] { ZipRangeEngine.pack(94200, 94299) }, table.toPackedRanges());
+		Assert.assertArrayEquals(
+				new long[] { ZipRangeEngine.pack(10000, 10000), ZipRangeEngine.pack(94200, 94399) },
+				updatedTable.toPackedRanges());
+	}
+
+}
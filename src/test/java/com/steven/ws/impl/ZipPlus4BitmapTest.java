@@ -0,0 +1,101 @@
+package com.steven.ws.impl;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZipPlus4BitmapTest {
+
+	@Test
+	public void fromRangesMatchesMergedRangesInEveryContainerType() {
+		Random random = new Random(5);
+		for (int round = 0; round < 20; round++) {
+			long[] ranges = randomRanges(random);
+			ZipPlus4Bitmap bitmap = ZipPlus4Bitmap.fromRanges(ranges, ranges.length);
+			long[] expectedRanges = mergeJoiningAdjacent(ranges);
+
+			Assert.assertArrayEquals(expectedRanges, bitmap.toPackedRanges());
+			for (int i = 0; i < 2000; i++) {
+				int zipPlus4Code = random.nextInt(3 << 16);
+				Assert.assertEquals("code " + zipPlus4Code, contains(expectedRanges, zipPlus4Code),
+						bitmap.contains(zipPlus4Code));
+			}
+		}
+	}
+
+	@Test
+	public void setOperationsMatchMergedRanges() {
+		Random random = new Random(9);
+		for (int round = 0; round < 20; round++) {
+			long[] left = randomRanges(random);
+			long[] right = randomRanges(random);
+			ZipPlus4Bitmap leftBitmap = ZipPlus4Bitmap.fromRanges(left, left.length);
+			ZipPlus4Bitmap rightBitmap = ZipPlus4Bitmap.fromRanges(right, right.length);
+			long[] mergedLeft = mergeJoiningAdjacent(left);
+			long[] mergedRight = mergeJoiningAdjacent(right);
+
+			Assert.assertArrayEquals(mergeJoiningAdjacent(ZipRangeEngine.union(mergedLeft, mergedRight)),
+					leftBitmap.union(rightBitmap).toPackedRanges());
+			Assert.assertArrayEquals(mergeJoiningAdjacent(ZipRangeEngine.intersection(mergedLeft, mergedRight)),
+					leftBitmap.intersection(rightBitmap).toPackedRanges());
+			Assert.assertArrayEquals(mergeJoiningAdjacent(ZipRangeEngine.difference(mergedLeft, mergedRight)),
+					leftBitmap.difference(rightBitmap).toPackedRanges());
+		}
+	}
+
+	@Test
+	public void memoryDependsOnRangesNotOnTheirWidth() {
+		ZipPlus4Bitmap narrow = ZipPlus4Bitmap.fromRanges(new long[] { ZipRangeEngine.pack(941330000, 941339999) }, 1);
+		ZipPlus4Bitmap wide = ZipPlus4Bitmap.fromRanges(new long[] { ZipRangeEngine.pack(100000000, 100589823) }, 1);
+
+		Assert.assertEquals(10000, narrow.cardinality());
+		Assert.assertEquals(589824, wide.cardinality());
+		Assert.assertTrue(narrow.sizeInBytes() <= 8);
+		Assert.assertTrue(wide.sizeInBytes() <= 64);
+		Assert.assertEquals("94133-0000", ZipPlus4Bitmap.formatZipPlus4Code(941330000));
+		Assert.assertEquals("00501-0042", ZipPlus4Bitmap.formatZipPlus4Code(5010042));
+	}
+
+	/**
+	 * Each call draws ranges over the first three chunks in one of three profiles: a few thousand single codes, which
+	 * end up in array containers, tens of thousands of short ranges, which end up in bitmap containers, or a mix with
+	 * wide ranges, which end up in run containers.
+	 */
+	private static long[] randomRanges(Random random) {
+		int profile = random.nextInt(3);
+		long[] ranges = new long[profile == 0 ? random.nextInt(6000) + 1 : profile == 1 ? 30000 : 50];
+		for (int i = 0; i < ranges.length; i++) {
+			int low = random.nextInt(3 << 16);
+			int width = profile == 0 ? 0 : profile == 1 ? random.nextInt(4) : random.nextInt(100000);
+			ranges[i] = ZipRangeEngine.pack(low, low + width);
+		}
+		return ranges;
+	}
+
+	private static long[] mergeJoiningAdjacent(long[] ranges) {
+		long[] merged = ranges.clone();
+		Arrays.sort(merged);
+		int count = 0;
+		for (long range : merged) {
+			if (count > 0 && ZipRangeEngine.low(range) <= ZipRangeEngine.high(merged[count - 1]) + 1) {
+				merged[count - 1] = ZipRangeEngine.pack(ZipRangeEngine.low(merged[count - 1]),
+						Math.max(ZipRangeEngine.high(merged[count - 1]), ZipRangeEngine.high(range)));
+			} else {
+				merged[count++] = range;
+			}
+		}
+		return Arrays.copyOf(merged, count);
+	}
+
+	private static boolean contains(long[] mergedRanges, int zipPlus4Code) {
+		for (long range : mergedRanges) {
+			if (ZipRangeEngine.low(range) <= zipPlus4Code && zipPlus4Code <= ZipRangeEngine.high(range)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
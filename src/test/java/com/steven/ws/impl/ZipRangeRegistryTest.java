@@ -0,0 +1,135 @@
+package com.steven.ws.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZipRangeRegistryTest {
+
+	private ZipRangeRegistry zipRangeRegistry = new ZipRangeRegistry();
+
+	@Test
+	public void addRangesMergesIntoExistingSet() {
+		zipRangeRegistry.addRanges("carrierA", new long[] { ZipRangeEngine.pack(94200, 94299),
+				ZipRangeEngine.pack(94600, 94699), ZipRangeEngine.pack(10000, 10010) });
+		zipRangeRegistry.addRanges("carrierA",
+				new long[] { ZipRangeEngine.pack(94250, 94650), ZipRangeEngine.pack(94133, 94133) });
+
+		long[] ranges = zipRangeRegistry.getRestrictionSet("carrierA");
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("10000", "10010"),
+				Arrays.asList("94133", "94133"), Arrays.asList("94200", "94699"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void addRangesKeepsAdjacentRangesApart() {
+		zipRangeRegistry.addRanges("carrierA", new long[] { ZipRangeEngine.pack(94000, 94133) });
+		zipRangeRegistry.addRanges("carrierA",
+				new long[] { ZipRangeEngine.pack(94134, 94299), ZipRangeEngine.pack(94100, 94120) });
+
+		long[] ranges = zipRangeRegistry.getRestrictionSet("carrierA");
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("94000", "94133"),
+				Arrays.asList("94134", "94299"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void checkZipCodeRestrictedInSet() {
+		zipRangeRegistry.addRanges("carrierA",
+				new long[] { ZipRangeEngine.pack(94200, 94299), ZipRangeEngine.pack(94600, 94699) });
+
+		Assert.assertTrue(zipRangeRegistry.isZipCodeRestricted("carrierA", 94200));
+		Assert.assertTrue(zipRangeRegistry.isZipCodeRestricted("carrierA", 94699));
+		Assert.assertFalse(zipRangeRegistry.isZipCodeRestricted("carrierA", 94300));
+		Assert.assertFalse(zipRangeRegistry.isZipCodeRestricted("carrierB", 94200));
+	}
+
+	@Test
+	public void replaceAndRemoveSet() {
+		zipRangeRegistry.addRanges("carrierA", new long[] { ZipRangeEngine.pack(94200, 94299) });
+		zipRangeRegistry.replaceRanges("carrierA", new long[] { ZipRangeEngine.pack(10000, 20000) });
+
+		Assert.assertFalse(zipRangeRegistry.isZipCodeRestricted("carrierA", 94250));
+		Assert.assertTrue(zipRangeRegistry.isZipCodeRestricted("carrierA", 15000));
+
+		Assert.assertTrue(zipRangeRegistry.removeRestrictionSet("carrierA"));
+		Assert.assertFalse(zipRangeRegistry.removeRestrictionSet("carrierA"));
+		Assert.assertNull(zipRangeRegistry.getRestrictionSet("carrierA"));
+	}
+
+	@Test
+	public void restoredSetIsReadInPlaceAndUpdatedAfterwards() {
+		long[] mergedRanges = new long[] { ZipRangeEngine.pack(10000, 10010), ZipRangeEngine.pack(94200, 94299) };
+		zipRangeRegistry.restoreRanges("carrierA", ZipRangeIndex.fromMergedRanges(mergedRanges, 2));
+
+		Assert.assertTrue(zipRangeRegistry.isZipCodeRestricted("carrierA", 94250));
+		Assert.assertFalse(zipRangeRegistry.isZipCodeRestricted("carrierA", 94300));
+		Assert.assertArrayEquals(mergedRanges, zipRangeRegistry.getRestrictionSet("carrierA"));
+
+		zipRangeRegistry.addRanges("carrierA", new long[] { ZipRangeEngine.pack(94250, 94350) });
+		long[] ranges = zipRangeRegistry.getRestrictionSet("carrierA");
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("10000", "10010"),
+				Arrays.asList("94200", "94350"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void concurrentAddsAreNotLostToRemovals() throws Exception {
+		int adderCount = 4;
+		int addsPerAdder = 20000;
+		AtomicInteger removalsCompleted = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(adderCount + 1);
+		try {
+			executor.submit(() -> {
+				start.await();
+				for (int i = 0; i < 200; i++) {
+					zipRangeRegistry.removeRestrictionSet("carrierA");
+					removalsCompleted.incrementAndGet();
+				}
+				return null;
+			});
+			List<Future<int[]>> adders = new ArrayList<>();
+			for (int adder = 0; adder < adderCount; adder++) {
+				int firstZipCode = adder * addsPerAdder;
+				adders.add(executor.submit(() -> {
+					// removals completed before each add started, any add after the last removal must be kept
+					int[] removalsBefore = new int[addsPerAdder];
+					start.await();
+					for (int i = 0; i < addsPerAdder; i++) {
+						removalsBefore[i] = removalsCompleted.get();
+						zipRangeRegistry.addRanges("carrierA",
+								new long[] { ZipRangeEngine.pack(firstZipCode + i, firstZipCode + i) });
+					}
+					return removalsBefore;
+				}));
+			}
+			start.countDown();
+
+			int checkedAdds = 0;
+			for (int adder = 0; adder < adderCount; adder++) {
+				int[] removalsBefore = adders.get(adder).get(30, TimeUnit.SECONDS);
+				for (int i = 0; i < addsPerAdder; i++) {
+					if (removalsBefore[i] == 200) {
+						checkedAdds++;
+						Assert.assertTrue(
+								zipRangeRegistry.isZipCodeRestricted("carrierA", adder * addsPerAdder + i));
+					}
+				}
+			}
+			Assert.assertTrue(checkedAdds > 0);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.steven.ws.impl;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ZipRangeResultCacheTest {
+
+	@Test
+	public void getReturnsCachedResultForEqualInput() {
+		ZipRangeResultCache cache = new ZipRangeResultCache(10, 1024 * 1024);
+		long[] merged = new long[] { ZipRangeEngine.pack(10000, 20000) };
+		cache.put(new long[] { ZipRangeEngine.pack(10000, 15000), ZipRangeEngine.pack(15000, 20000) }, merged);
+
+		Assert.assertSame(merged,
+				cache.get(new long[] { ZipRangeEngine.pack(10000, 15000), ZipRangeEngine.pack(15000, 20000) }));
+		Assert.assertNull(cache.get(new long[] { ZipRangeEngine.pack(10000, 15000) }));
+		Assert.assertEquals(1, cache.getHitCount());
+		Assert.assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void putEvictsLeastRecentlyUsedEntryByCount() {
+		ZipRangeResultCache cache = new ZipRangeResultCache(2, 1024 * 1024);
+		long[] first = new long[] { ZipRangeEngine.pack(1, 1) };
+		long[] second = new long[] { ZipRangeEngine.pack(2, 2) };
+		long[] third = new long[] { ZipRangeEngine.pack(3, 3) };
+		cache.put(first, first);
+		cache.put(second, second);
+		cache.get(first);
+		cache.put(third, third);
+
+		Assert.assertEquals(2, cache.getSize());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertNotNull(cache.get(first));
+		Assert.assertNull(cache.get(second));
+		Assert.assertNotNull(cache.get(third));
+	}
+
+	@Test
+	public void putEvictsByWeightAndSkipsOversizedResults() {
+		ZipRangeResultCache cache = new ZipRangeResultCache(100, 400);
+		cache.put(new long[10], new long[1]);
+		cache.put(new long[11], new long[1]);
+		Assert.assertEquals(1, cache.getSize());
+		Assert.assertEquals(1, cache.getEvictionCount());
+		Assert.assertTrue(cache.getWeightBytes() <= 400);
+
+		cache.put(new long[100], new long[1]);
+		Assert.assertEquals(1, cache.getSize());
+		Assert.assertNull(cache.get(new long[100]));
+	}
+
+}
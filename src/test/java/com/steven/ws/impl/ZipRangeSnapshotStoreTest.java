@@ -0,0 +1,58 @@
+package com.steven.ws.impl;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+public class ZipRangeSnapshotStoreTest {
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void writeAndReadSnapshot() throws IOException {
+		Map<String, long[]> restrictionSets = new TreeMap<>();
+		restrictionSets.put("carrierA", new long[] { ZipRangeEngine.pack(0, 0), ZipRangeEngine.pack(94200, 94299) });
+		restrictionSets.put("embargo-é", new long[] { ZipRangeEngine.pack(10000, 99999) });
+		restrictionSets.put("empty", new long[0]);
+
+		Path snapshot = temporaryFolder.getRoot().toPath().resolve("sets.snapshot");
+		ZipRangeSnapshotStore.write(snapshot, restrictionSets);
+		ZipRangeSnapshotStore.write(snapshot, restrictionSets);
+
+		Map<String, ZipRangeIndex> restored = ZipRangeSnapshotStore.read(snapshot);
+		Assert.assertEquals(restrictionSets.keySet(), restored.keySet());
+		for (Map.Entry<String, long[]> restrictionSet : restrictionSets.entrySet()) {
+			Assert.assertArrayEquals(restrictionSet.getValue(), restored.get(restrictionSet.getKey()).toPackedRanges());
+		}
+		Assert.assertEquals(1, temporaryFolder.getRoot().list().length);
+	}
+
+	@Test
+	public void readRejectsCorruptSnapshot() throws IOException {
+		Map<String, long[]> restrictionSets = new TreeMap<>();
+		restrictionSets.put("carrierA", new long[] { ZipRangeEngine.pack(94200, 94299) });
+		Path snapshot = temporaryFolder.getRoot().toPath().resolve("sets.snapshot");
+		ZipRangeSnapshotStore.write(snapshot, restrictionSets);
+
+		byte[] content = Files.readAllBytes(snapshot);
+		content[content.length - 1]++;
+		Files.write(snapshot, content);
+
+		expectedEx.expect(IOException.class);
+		expectedEx.expectMessage("checksum does not match");
+		ZipRangeSnapshotStore.read(snapshot);
+	}
+
+}
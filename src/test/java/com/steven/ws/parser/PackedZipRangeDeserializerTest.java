@@ -0,0 +1,78 @@
+package com.steven.ws.parser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.steven.ws.dto.PackedZipRangeDTO;
+import com.steven.ws.impl.ZipRangeEngine;
+
+public class PackedZipRangeDeserializerTest {
+
+	private ObjectMapper objectMapper = new ObjectMapper();
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void deserializeRanges() throws IOException {
+		PackedZipRangeDTO zipRangeDTO = objectMapper.readValue("{\"comment\":{\"a\":[1]},\"zipCodeRanges\":["
+				+ "{\"zipRange\":[\"94133\",\"94133\"]},{\"zipRange\":[\"94299\",\" 94200 \"]},"
+				+ "{\"note\":null,\"zipRange\":[\"00501\",94600]}]}", PackedZipRangeDTO.class);
+
+		long[] ranges = zipRangeDTO.getZipCodeRanges();
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("94133", "94133"),
+				Arrays.asList("94200", "94299"), Arrays.asList("00501", "94600"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void deserializeManyRanges() throws IOException {
+		StringBuilder json = new StringBuilder("{\"zipCodeRanges\":[");
+		for (int i = 0; i < 1000; i++) {
+			json.append(i == 0 ? "" : ",").append("{\"zipRange\":[\"")
+					.append(ZipRangeEngine.formatZipCode(i * 10)).append("\",\"")
+					.append(ZipRangeEngine.formatZipCode(i * 10 + 5)).append("\"]}");
+		}
+		json.append("]}");
+
+		long[] ranges = objectMapper.readValue(json.toString(), PackedZipRangeDTO.class).getZipCodeRanges();
+		Assert.assertEquals(1000, ranges.length);
+		Assert.assertEquals(ZipRangeEngine.pack(9990, 9995), ranges[999]);
+	}
+
+	@Test
+	public void deserializeEmptyRanges() throws IOException {
+		Assert.assertTrue(objectMapper.readValue("{\"zipCodeRanges\":[]}", PackedZipRangeDTO.class).isEmpty());
+		Assert.assertTrue(objectMapper.readValue("{}", PackedZipRangeDTO.class).isEmpty());
+	}
+
+	@Test
+	public void deserializeRejectsBadZipCode() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 31");
+		objectMapper.readValue("{\"zipCodeRanges\":[{\"zipRange\":[\"9413\",\"94133\"]}]}", PackedZipRangeDTO.class);
+	}
+
+	@Test
+	public void deserializeRejectsRangeWithThreeZipCodes() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes");
+		objectMapper.readValue("{\"zipCodeRanges\":[{\"zipRange\":[\"94133\",\"94133\",\"94200\"]}]}",
+				PackedZipRangeDTO.class);
+	}
+
+	@Test
+	public void deserializeRejectsMissingZipRange() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes at offset 18");
+		objectMapper.readValue("{\"zipCodeRanges\":[{\"zipRange\":null}]}", PackedZipRangeDTO.class);
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.steven.ws.parser;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.steven.ws.impl.ZipRangeEngine;
+
+public class PipeDelimitedRangeParserTest {
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void parseRanges() {
+		long[] ranges = PipeDelimitedRangeParser.parse("10000,20000|60000,50000| 11111 , 11112 |[00000,\"00001\"]");
+
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("10000", "20000"),
+				Arrays.asList("50000", "60000"), Arrays.asList("11111", "11112"), Arrays.asList("00000", "00001"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void parseRejectsShortZipCode() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 18");
+		PipeDelimitedRangeParser.parse("10000,20000|50000,6000");
+	}
+
+	@Test
+	public void parseRejectsLongZipCode() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 0");
+		PipeDelimitedRangeParser.parse("100000,20000");
+	}
+
+	@Test
+	public void parseIgnoresStrayCharactersAndTrailingSeparators() {
+		long[] ranges = PipeDelimitedRangeParser.parse("1a0000,20-000|50000,600 00,||");
+
+		List<List<String>> expectedList = Arrays.asList(Arrays.asList("10000", "20000"),
+				Arrays.asList("50000", "60000"));
+		Assert.assertEquals(expectedList, ZipRangeEngine.toStringRanges(ranges, ranges.length));
+	}
+
+	@Test
+	public void parseRejectsZipCodeShortOfDigitsOnceCleaned() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 12");
+		PipeDelimitedRangeParser.parse("10000,20000|50a00,60000");
+	}
+
+	@Test
+	public void parseRejectsEmptyValue() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 6");
+		PipeDelimitedRangeParser.parse("10000,,20000");
+	}
+
+	@Test
+	public void parseRejectsMissingSecondZipCode() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes at offset 5");
+		PipeDelimitedRangeParser.parse("10000|50000,60000");
+	}
+
+	@Test
+	public void parseRejectsThirdZipCode() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes at offset 11");
+		PipeDelimitedRangeParser.parse("10000,20000,30000");
+	}
+
+	@Test
+	public void parseRejectsEmptyRange() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes at offset 12");
+		PipeDelimitedRangeParser.parse("10000,20000||50000,60000");
+	}
+
+	@Test
+	public void parseRejectsLeadingEmptyRange() {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("A range must contain exactly 2 zip codes at offset 0");
+		PipeDelimitedRangeParser.parse("|10000,20000");
+	}
+
+}
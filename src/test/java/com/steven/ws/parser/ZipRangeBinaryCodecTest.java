@@ -0,0 +1,56 @@
+package com.steven.ws.parser;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import com.steven.ws.impl.ZipRangeEngine;
+
+public class ZipRangeBinaryCodecTest {
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void encodeMergedRanges() {
+		long[] ranges = { ZipRangeEngine.pack(94133, 94133), ZipRangeEngine.pack(94200, 94299) };
+		byte[] expected = { 0x02, (byte) 0xEA, (byte) 0xBE, 0x0B, 0x00, (byte) 0x86, 0x01, 0x63 };
+		Assert.assertArrayEquals(expected, ZipRangeBinaryCodec.encode(ranges));
+	}
+
+	@Test
+	public void roundTripUnsortedRanges() throws IOException {
+		Random random = new Random(42);
+		long[] ranges = new long[5000];
+		for (int i = 0; i < ranges.length; i++) {
+			ranges[i] = ZipRangeEngine.pack(random.nextInt(ZipRangeEngine.ZIP_CODE_UNIVERSE),
+					random.nextInt(ZipRangeEngine.ZIP_CODE_UNIVERSE));
+		}
+		ranges[0] = ZipRangeEngine.pack(0, 99999);
+
+		byte[] encoded = ZipRangeBinaryCodec.encode(ranges);
+		Assert.assertArrayEquals(ranges, ZipRangeBinaryCodec.read(new ByteArrayInputStream(encoded)));
+	}
+
+	@Test
+	public void readRejectsTruncatedInput() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Unexpected end of input at offset 1");
+		ZipRangeBinaryCodec.read(new ByteArrayInputStream(new byte[] { 0x02, (byte) 0xEA, (byte) 0xBE }));
+	}
+
+	@Test
+	public void readRejectsZipCodeOutOfRange() throws IOException {
+		byte[] encoded = ZipRangeBinaryCodec.encode(new long[] { ZipRangeEngine.pack(99999, 99999) });
+		encoded[encoded.length - 1] = 0x01;
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Range is outside of the zip code range at offset 1");
+		ZipRangeBinaryCodec.read(new ByteArrayInputStream(encoded));
+	}
+
+}
@@ -0,0 +1,63 @@
+package com.steven.ws.parser;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class ZipRangeStreamReaderTest {
+
+	@Rule
+	public ExpectedException expectedEx = ExpectedException.none();
+
+	@Test
+	public void readBracketTextFormat() throws IOException {
+		List<String> ranges = new ArrayList<>();
+		long count = ZipRangeStreamReader.read(new StringReader("[94133,94133] [94200,94299]\n[94699, 94600]"),
+				(first, second) -> ranges.add(first + "-" + second));
+
+		Assert.assertEquals(3, count);
+		Assert.assertEquals("[94133-94133, 94200-94299, 94699-94600]", ranges.toString());
+	}
+
+	@Test
+	public void readNdjsonFormat() throws IOException {
+		List<String> ranges = new ArrayList<>();
+		long count = ZipRangeStreamReader.read(
+				new StringReader("[\"00000\",\"12345\"]\n{\"zipRange\":[\"94200\",\"94299\"]}\n"),
+				(first, second) -> ranges.add(first + "-" + second));
+
+		Assert.assertEquals(2, count);
+		Assert.assertEquals("[0-12345, 94200-94299]", ranges.toString());
+	}
+
+	@Test
+	public void readRejectsShortZipCode() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Zip codes must be 5 digits at offset 15");
+		ZipRangeStreamReader.read(new StringReader("[94133,94133] [9420,94299]"), (first, second) -> {
+		});
+	}
+
+	@Test
+	public void readRejectsUnexpectedCharacter() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Unexpected character 'x' at offset 4");
+		ZipRangeStreamReader.read(new StringReader("[941x3,94133]"), (first, second) -> {
+		});
+	}
+
+	@Test
+	public void readRejectsUnterminatedRange() throws IOException {
+		expectedEx.expect(ZipRangeParseException.class);
+		expectedEx.expectMessage("Unterminated range at offset 12");
+		ZipRangeStreamReader.read(new StringReader("[94133,94133"), (first, second) -> {
+		});
+	}
+
+}